@@ -15,9 +15,50 @@
  */
 package io.gravitee.policy.callout;
 
+import io.netty.channel.ConnectTimeoutException;
+import io.vertx.core.http.HttpClosedException;
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import javax.net.ssl.SSLException;
+
 public class CalloutException extends RuntimeException {
 
     public CalloutException(Throwable cause) {
         super(cause);
     }
+
+    public boolean isTimeout() {
+        return isTimeout(getCause());
+    }
+
+    /**
+     * @return <code>true</code> if the callout failed because the connect, read or request timeout elapsed
+     */
+    public static boolean isTimeout(Throwable throwable) {
+        for (Throwable th = throwable; th != null; th = th.getCause()) {
+            if (th instanceof TimeoutException || th instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isConnectionFailure() {
+        return isConnectionFailure(getCause());
+    }
+
+    /**
+     * @return <code>true</code> if the callout failed because the connection could not be established or was lost, TLS failures aside
+     */
+    public static boolean isConnectionFailure(Throwable throwable) {
+        for (Throwable th = throwable; th != null; th = th.getCause()) {
+            if (th instanceof SSLException) {
+                return false;
+            }
+            if (th instanceof IOException || th instanceof HttpClosedException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
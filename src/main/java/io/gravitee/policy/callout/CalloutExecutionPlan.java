@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.gravitee.policy.callout.configuration.HttpHeader;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import java.util.List;
+
+/**
+ * Everything a callout needs that does not depend on the execution, computed once when the policy is created: the resolved
+ * method, the parsed request options when the URL is literal and the headers when none of them hold an EL expression.
+ * The hot path then only fills in the dynamic parts.
+ *
+ * <p>The precomputed {@link RequestOptions} and {@link MultiMap} are shared by all the callouts and must never be modified.</p>
+ *
+ * @author GraviteeSource Team
+ */
+record CalloutExecutionPlan(
+    HttpMethod method,
+    long readTimeoutMs,
+    String staticUrl,
+    RequestOptions staticRequestOptions,
+    List<HttpHeader> staticHeaderList,
+    MultiMap staticHeaders
+) {
+    static CalloutExecutionPlan of(CalloutRequestTemplate template, HttpMethod method, long readTimeoutMs) {
+        String staticUrl = null;
+        RequestOptions staticRequestOptions = null;
+        if (template.literalUrl() && template.url() != null) {
+            staticUrl = template.url();
+            staticRequestOptions = newRequestOptions(staticUrl, method, readTimeoutMs);
+        }
+
+        List<HttpHeader> staticHeaderList = null;
+        MultiMap staticHeaders = null;
+        if (template.literalHeaders()) {
+            staticHeaderList = template.headers();
+            staticHeaders = MultiMap.caseInsensitiveMultiMap();
+            for (HttpHeader header : staticHeaderList) {
+                staticHeaders.set(header.getName(), header.getValue());
+            }
+        }
+
+        return new CalloutExecutionPlan(method, readTimeoutMs, staticUrl, staticRequestOptions, staticHeaderList, staticHeaders);
+    }
+
+    RequestOptions requestOptions(CalloutHttpPolicy.Req reqConfig) {
+        if (staticRequestOptions != null && staticUrl.equals(reqConfig.url())) {
+            return staticRequestOptions;
+        }
+        return newRequestOptions(reqConfig.url(), method, readTimeoutMs);
+    }
+
+    /**
+     * @return the request options of a callout sent with another method than the configured one
+     */
+    RequestOptions requestOptions(CalloutHttpPolicy.Req reqConfig, HttpMethod otherMethod) {
+        if (otherMethod == method) {
+            return requestOptions(reqConfig);
+        }
+        return newRequestOptions(reqConfig.url(), otherMethod, readTimeoutMs);
+    }
+
+    void applyHeaders(HttpClientRequest request, CalloutHttpPolicy.Req reqConfig) {
+        if (staticHeaders != null && reqConfig.headerList() == staticHeaderList) {
+            for (var header : staticHeaders) {
+                request.putHeader(header.getKey(), header.getValue());
+            }
+            return;
+        }
+        if (reqConfig.headerList() != null) {
+            for (HttpHeader header : reqConfig.headerList()) {
+                if (header.getValue() != null) {
+                    request.putHeader(header.getName(), header.getValue());
+                }
+            }
+        }
+    }
+
+    private static RequestOptions newRequestOptions(String url, HttpMethod method, long readTimeoutMs) {
+        var requestOpts = new RequestOptions().setAbsoluteURI(url).setMethod(method);
+        if (readTimeoutMs > 0) {
+            requestOpts.setIdleTimeout(readTimeoutMs);
+        }
+        return requestOpts;
+    }
+}
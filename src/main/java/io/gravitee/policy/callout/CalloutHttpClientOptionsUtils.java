@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.gravitee.policy.callout.configuration.HttpClientOptions;
+import io.gravitee.policy.callout.configuration.HttpProtocol;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.PoolOptions;
+import java.util.concurrent.TimeUnit;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Build the Vert.x HTTP client options from the policy configuration.
+ *
+ * @author GraviteeSource Team
+ */
+@UtilityClass
+public class CalloutHttpClientOptionsUtils {
+
+    public io.vertx.core.http.HttpClientOptions buildHttpClientOptions(HttpClientOptions httpOptions) {
+        // SSL options (trustAll, verifyHost) are set at client level but only applied per-request
+        // when the URL scheme is HTTPS. Vertx's RequestOptions.setAbsoluteURI() overrides the client
+        // SSL setting based on the actual URL scheme, so HTTP requests are not affected.
+        var options = new io.vertx.core.http.HttpClientOptions()
+            .setSsl(true)
+            .setTrustAll(true)
+            .setVerifyHost(false)
+            .setKeepAlive(httpOptions.isKeepAlive())
+            .setKeepAliveTimeout(httpOptions.getKeepAliveTimeoutSeconds())
+            .setIdleTimeout(httpOptions.getIdleTimeoutSeconds())
+            .setIdleTimeoutUnit(TimeUnit.SECONDS)
+            .setPipelining(httpOptions.isPipelining())
+            .setPipeliningLimit(Math.max(1, httpOptions.getPipeliningLimit()))
+            .setMaxLifetime(httpOptions.getMaxLifetimeSeconds())
+            .setMaxLifetimeUnit(TimeUnit.SECONDS)
+            .setConnectTimeout(httpOptions.getConnectTimeoutMs())
+            .setDecompressionSupported(httpOptions.isDecompressionSupported());
+
+        HttpProtocol protocol = httpOptions.getProtocol() == null ? HttpProtocol.HTTP_1_1 : httpOptions.getProtocol();
+        if (protocol != HttpProtocol.HTTP_1_1) {
+            options.setProtocolVersion(HttpVersion.HTTP_2).setUseAlpn(true).setHttp2ClearTextUpgrade(protocol == HttpProtocol.HTTP_2);
+            if (httpOptions.getHttp2MultiplexingLimit() > 0) {
+                options.setHttp2MultiplexingLimit(httpOptions.getHttp2MultiplexingLimit());
+            }
+        }
+
+        return options;
+    }
+
+    public PoolOptions buildPoolOptions(HttpClientOptions httpOptions) {
+        return new PoolOptions()
+            .setHttp1MaxSize(httpOptions.getMaxConcurrentConnections())
+            .setHttp2MaxSize(Math.max(1, httpOptions.getHttp2MaxConnections()))
+            .setMaxWaitQueueSize(httpOptions.getMaxWaitQueueSize());
+    }
+}
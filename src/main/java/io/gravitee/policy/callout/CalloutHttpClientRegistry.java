@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.json.JsonObject;
+import java.lang.ref.Cleaner;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.CustomLog;
+
+/**
+ * Share the callout HTTP clients of a node between the policy instances configured with the same effective options
+ * (proxy, SSL, protocol, pool, timeouts), so that they reuse the same connection pools.
+ *
+ * <p>Clients are reference counted: each policy instance holds a {@link Lease} and the client is closed once the last lease
+ * is released. A lease is also released when its owner is garbage collected.</p>
+ *
+ * @author GraviteeSource Team
+ */
+@CustomLog
+public class CalloutHttpClientRegistry {
+
+    private static final CalloutHttpClientRegistry SHARED = new CalloutHttpClientRegistry();
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Map<Key, SharedClient> clients = new HashMap<>();
+
+    public static CalloutHttpClientRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Get the client matching the given options, creating it on first use.
+     *
+     * @param owner the object holding the lease, which is released when the owner is garbage collected
+     * @param vertx the Vert.x instance creating the client, clients are never shared between instances
+     * @param factory create the client when none matches the options
+     * @param closer close the client once its last lease is released
+     */
+    public synchronized <C> Lease<C> acquire(
+        Object owner,
+        Object vertx,
+        HttpClientOptions options,
+        PoolOptions poolOptions,
+        Supplier<C> factory,
+        Consumer<C> closer
+    ) {
+        var key = new Key(vertx, options.toJson(), poolOptions.toJson());
+        var sharedClient = clients.computeIfAbsent(key, k -> new SharedClient(factory.get(), closer));
+        sharedClient.references++;
+
+        var lease = new Lease<C>(this, key, sharedClient);
+        CLEANER.register(owner, lease::release);
+        return lease;
+    }
+
+    /**
+     * @return the number of clients currently open on this node
+     */
+    public synchronized int openClients() {
+        return clients.size();
+    }
+
+    private synchronized void release(Key key, SharedClient sharedClient) {
+        if (--sharedClient.references > 0 || !clients.remove(key, sharedClient)) {
+            return;
+        }
+        try {
+            sharedClient.close();
+        } catch (Exception e) {
+            log.warn("Unable to close callout HTTP client: {}", e.getMessage());
+        }
+    }
+
+    private record Key(Object vertx, JsonObject options, JsonObject poolOptions) {}
+
+    private static class SharedClient {
+
+        private final Object client;
+        private final Consumer<Object> closer;
+        private int references;
+
+        @SuppressWarnings("unchecked")
+        private <C> SharedClient(C client, Consumer<C> closer) {
+            this.client = client;
+            this.closer = (Consumer<Object>) closer;
+        }
+
+        private void close() {
+            closer.accept(client);
+        }
+    }
+
+    public static class Lease<C> {
+
+        private final CalloutHttpClientRegistry registry;
+        private final Key key;
+        private final SharedClient sharedClient;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(CalloutHttpClientRegistry registry, Key key, SharedClient sharedClient) {
+            this.registry = registry;
+            this.key = key;
+            this.sharedClient = sharedClient;
+        }
+
+        @SuppressWarnings("unchecked")
+        public C client() {
+            return (C) sharedClient.client;
+        }
+
+        /**
+         * Release this lease, closing the client if it was the last one. Releasing a lease more than once has no effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                registry.release(key, sharedClient);
+            }
+        }
+    }
+}
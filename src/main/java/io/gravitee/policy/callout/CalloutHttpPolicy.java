@@ -15,6 +15,7 @@
  */
 package io.gravitee.policy.callout;
 
+import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.el.TemplateEngine;
 import io.gravitee.gateway.reactive.api.ExecutionFailure;
 import io.gravitee.gateway.reactive.api.context.base.BaseExecutionContext;
@@ -23,28 +24,62 @@ import io.gravitee.gateway.reactive.api.context.kafka.KafkaMessageExecutionConte
 import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
 import io.gravitee.gateway.reactive.api.policy.http.HttpPolicy;
 import io.gravitee.gateway.reactive.api.policy.kafka.KafkaPolicy;
+import io.gravitee.gateway.reactive.api.tracing.Tracer;
 import io.gravitee.node.api.configuration.Configuration;
 import io.gravitee.node.api.opentelemetry.Span;
 import io.gravitee.node.api.opentelemetry.http.ObservableHttpClientRequest;
 import io.gravitee.node.api.opentelemetry.http.ObservableHttpClientResponse;
 import io.gravitee.node.vertx.proxy.VertxProxyOptionsUtils;
+import io.gravitee.policy.callout.cache.CachedCallout;
+import io.gravitee.policy.callout.cache.CalloutCacheKey;
+import io.gravitee.policy.callout.cache.CalloutResponseCache;
+import io.gravitee.policy.callout.circuitbreaker.CircuitBreaker;
+import io.gravitee.policy.callout.circuitbreaker.CircuitBreakerOpenException;
+import io.gravitee.policy.callout.configuration.BodySource;
 import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
+import io.gravitee.policy.callout.configuration.FireAndForgetOptions;
+import io.gravitee.policy.callout.configuration.HedgingOptions;
 import io.gravitee.policy.callout.configuration.HttpHeader;
+import io.gravitee.policy.callout.configuration.KafkaOptions;
+import io.gravitee.policy.callout.configuration.MessageOrdering;
+import io.gravitee.policy.callout.configuration.RequestCompression;
+import io.gravitee.policy.callout.configuration.ResponseBodyOverflow;
+import io.gravitee.policy.callout.configuration.RetryOptions;
+import io.gravitee.policy.callout.configuration.SpoolOptions;
+import io.gravitee.policy.callout.spool.CalloutSpool;
 import io.gravitee.policy.v3.callout.CalloutHttpPolicyV3;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.CompletableSubject;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.PoolOptions;
 import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.DecodeException;
+import io.vertx.rxjava3.core.RxHelper;
 import io.vertx.rxjava3.core.Vertx;
 import io.vertx.rxjava3.core.http.HttpClient;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.CustomLog;
 
 /**
@@ -54,10 +89,138 @@ import lombok.CustomLog;
 @CustomLog
 public class CalloutHttpPolicy extends CalloutHttpPolicyV3 implements HttpPolicy, KafkaPolicy {
 
-    private volatile HttpClient httpClient;
+    static final String SPOOL_DIRECTORY_PROPERTY = "policy.callout.spool.directory";
+
+    /**
+     * Maximum number of circuit breakers per policy instance, beyond which the other targets share a single circuit breaker, as
+     * targets may be built from the request.
+     */
+    static final int MAX_CIRCUIT_BREAKERS = 100;
+
+    private static final String OTHER_TARGETS = "other";
+
+    private volatile CalloutHttpClientRegistry.Lease<HttpClient> httpClientLease;
+
+    private final CalloutRequestTemplate requestTemplate;
+
+    private final CalloutExecutionPlan executionPlan;
+
+    private final CalloutResponseCache responseCache;
+
+    private final SingleFlight<CalloutCacheKey, CalloutResponseWithDelegate> singleFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicBoolean closing = new AtomicBoolean();
+
+    private final CompletableSubject drained = CompletableSubject.create();
+
+    private final Map<String, CircuitBreaker> circuitBreakers;
+
+    private final LatencyTracker latencies = new LatencyTracker(256);
+
+    private final RetryBudget hedgeBudget = new RetryBudget(10);
+
+    private final FireAndForgetDispatcher fireAndForgetDispatcher;
+
+    private final FireAndForgetBatcher fireAndForgetBatcher;
+
+    private final SpoolOptions spoolOptions;
+
+    private volatile CalloutSpool spool;
+
+    private volatile boolean spoolUnavailable;
+
+    private final AtomicBoolean replayStarted = new AtomicBoolean();
+
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    private volatile Runnable stopReplay;
+
+    private volatile CalloutContext background;
+
+    private final CalloutMetrics metrics;
 
     public CalloutHttpPolicy(CalloutHttpPolicyConfiguration configuration) {
         super(configuration);
+        this.requestTemplate = CalloutRequestTemplate.of(configuration);
+        this.executionPlan = CalloutExecutionPlan.of(
+            requestTemplate,
+            configuration.getMethod() == null ? null : convert(configuration.getMethod()),
+            configuration.getHttpOptions().getReadTimeoutMs()
+        );
+        this.responseCache = configuration.getCache() != null && configuration.getCache().isEnabled() && !configuration.isFireAndForget()
+            ? new CalloutResponseCache(configuration.getCache())
+            : null;
+        this.singleFlight = configuration.isCoalesceRequests() && !configuration.isFireAndForget() ? new SingleFlight<>() : null;
+        this.circuitBreakers = configuration.getCircuitBreaker() != null && configuration.getCircuitBreaker().isEnabled()
+            ? new ConcurrentHashMap<>()
+            : null;
+        FireAndForgetOptions fireAndForgetOptions = configuration.getFireAndForgetOptions() == null
+            ? new FireAndForgetOptions()
+            : configuration.getFireAndForgetOptions();
+        this.fireAndForgetDispatcher = configuration.isFireAndForget() ? new FireAndForgetDispatcher(fireAndForgetOptions) : null;
+        this.fireAndForgetBatcher = configuration.isFireAndForget() && fireAndForgetOptions.isBatchEnabled()
+            ? new FireAndForgetBatcher(fireAndForgetOptions)
+            : null;
+        SpoolOptions spoolOptions = fireAndForgetOptions.getSpool();
+        this.spoolOptions = configuration.isFireAndForget() && spoolOptions != null && spoolOptions.isEnabled() ? spoolOptions : null;
+        this.metrics = CalloutMetrics.create(configuration.isLatencyHistograms());
+    }
+
+    /**
+     * Open the spool on first use, as its root directory is configured on the gateway node.
+     *
+     * @return the spool, <code>null</code> if disabled or if it cannot be opened
+     */
+    private CalloutSpool spool(CalloutContext calloutCtx) {
+        if (spoolOptions != null && spool == null && !spoolUnavailable) {
+            synchronized (this) {
+                if (spool == null && !spoolUnavailable && !closing.get()) {
+                    try {
+                        Path directory = spoolDirectory(spoolRoot(calloutCtx.nodeConfiguration()), spoolOptions, configuration);
+                        spool = CalloutSpool.open(directory, spoolOptions.getMaxSizeBytes(), spoolOptions.getSegmentSizeBytes());
+                    } catch (UncheckedIOException | IllegalArgumentException e) {
+                        spoolUnavailable = true;
+                        log.warn("Unable to open the callout spool, failed fire and forget callouts will not be spooled", e);
+                    }
+                }
+            }
+        }
+        return spool;
+    }
+
+    /**
+     * @return the root directory of the spools, set with the {@value #SPOOL_DIRECTORY_PROPERTY} property of the node, and by default
+     * the <code>data/callout-spool</code> directory of the gateway home
+     */
+    static Path spoolRoot(Configuration nodeConfiguration) {
+        String root = nodeConfiguration == null ? null : nodeConfiguration.getProperty(SPOOL_DIRECTORY_PROPERTY);
+        if (root != null && !root.isBlank()) {
+            return Path.of(root);
+        }
+        return Path.of(System.getProperty("gravitee.home", System.getProperty("user.dir")), "data", "callout-spool");
+    }
+
+    /**
+     * @return the configured spool directory, or one dedicated to the method and URL of the policy, named after their digest so that
+     * it is found again when the gateway restarts
+     * @throws IllegalArgumentException if the configured directory is not within the spool root, as it is set by API publishers
+     */
+    static Path spoolDirectory(Path root, SpoolOptions spoolOptions, CalloutHttpPolicyConfiguration configuration) {
+        Path spoolRoot = root.toAbsolutePath().normalize();
+        if (spoolOptions.getDirectory() != null && !spoolOptions.getDirectory().isBlank()) {
+            Path directory = spoolRoot.resolve(spoolOptions.getDirectory()).normalize();
+            if (directory.equals(spoolRoot) || !directory.startsWith(spoolRoot)) {
+                throw new IllegalArgumentException(
+                    "Callout spool directory " + spoolOptions.getDirectory() + " is not within " + spoolRoot
+                );
+            }
+            return directory;
+        }
+        String method = configuration.getMethod() == null ? "" : configuration.getMethod().name();
+        String key = method + " " + configuration.getUrl();
+        return spoolRoot.resolve(UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString());
     }
 
     @Override
@@ -65,98 +228,886 @@ public class CalloutHttpPolicy extends CalloutHttpPolicyV3 implements HttpPolicy
         return "policy-http-callout";
     }
 
+    /**
+     * Release the HTTP client once the in-flight callouts, fire and forget ones included, are completed or the drain timeout elapsed.
+     */
+    @Override
+    public void close() {
+        drain().subscribe();
+    }
+
+    Completable drain() {
+        if (!closing.compareAndSet(false, true)) {
+            return drained;
+        }
+        if (stopReplay != null) {
+            stopReplay.run();
+        }
+        if (fireAndForgetBatcher != null) {
+            // Batches are only opened once the background context is captured.
+            fireAndForgetBatcher.removeAll().forEach(batch -> flush(background, batch).subscribe());
+        }
+        if (inFlight.get() == 0 && queuedFireAndForget() == 0) {
+            drained.onComplete();
+        }
+        return drained
+            .timeout(
+                configuration.getHttpOptions().getDrainTimeoutMs(),
+                TimeUnit.MILLISECONDS,
+                Completable.fromRunnable(() -> log.warn("Closing callout HTTP client with {} callouts still in flight", inFlight.get()))
+            )
+            .doFinally(() -> {
+                if (httpClientLease != null) {
+                    httpClientLease.release();
+                }
+                if (spool != null) {
+                    spool.releaseReplay(this);
+                    spool.release();
+                }
+                metrics.close();
+                super.close();
+            });
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    FireAndForgetDispatcher fireAndForgetDispatcher() {
+        return fireAndForgetDispatcher;
+    }
+
+    CalloutSpool spool() {
+        return spool;
+    }
+
+    private int queuedFireAndForget() {
+        return fireAndForgetDispatcher == null ? 0 : fireAndForgetDispatcher.queued();
+    }
+
     @Override
     public Completable onRequest(HttpPlainExecutionContext ctx) {
-        return Completable.defer(() -> doCallOut(ctx, ctx.getTemplateEngine()));
+        return Completable.defer(() -> doCallOut(ctx, ResponseScope.of(ctx), () -> ctx.request().body()));
     }
 
     @Override
     public Completable onResponse(HttpPlainExecutionContext ctx) {
-        return Completable.defer(() -> doCallOut(ctx, ctx.getTemplateEngine()));
+        return Completable.defer(() -> doCallOut(ctx, ResponseScope.of(ctx), () -> ctx.response().body()));
     }
 
     @Override
     public Completable onMessageRequest(KafkaMessageExecutionContext ctx) {
+        if (configuration.getKafka().isBatchEnabled()) {
+            return ctx.request().onMessages(messages -> doBatchCallOut(ctx, messages));
+        } else if (configuration.getKafka().getConcurrency() > 1) {
+            return ctx.request().onMessages(messages -> doConcurrentCallOut(ctx, messages));
+        }
         return ctx.request().onMessage(message -> doCallOut(ctx, message));
     }
 
     @Override
     public Completable onMessageResponse(KafkaMessageExecutionContext ctx) {
+        if (configuration.getKafka().isBatchEnabled()) {
+            return ctx.response().onMessages(messages -> doBatchCallOut(ctx, messages));
+        } else if (configuration.getKafka().getConcurrency() > 1) {
+            return ctx.response().onMessages(messages -> doConcurrentCallOut(ctx, messages));
+        }
         return ctx.response().onMessage(message -> doCallOut(ctx, message));
     }
 
     private Maybe<KafkaMessage> doCallOut(KafkaMessageExecutionContext ctx, KafkaMessage message) {
-        TemplateEngine templateEngine = ctx.getTemplateEngine(message);
-        return doCallOut(ctx, templateEngine).andThen(Maybe.just(message));
+        return doCallOut(ctx, message, new ResponseScope(ctx.getTemplateEngine(message), null));
+    }
+
+    /**
+     * @param scope where the variables of the response are set, the message itself when messages are processed concurrently
+     */
+    private Maybe<KafkaMessage> doCallOut(KafkaMessageExecutionContext ctx, KafkaMessage message, ResponseScope scope) {
+        Supplier<Maybe<io.gravitee.gateway.api.buffer.Buffer>> content = () -> Maybe.fromOptional(Optional.ofNullable(message.content()));
+        return doCallOut(ctx, scope, content).andThen(Maybe.just(message));
+    }
+
+    /**
+     * Make the message callouts concurrently, up to the configured concurrency, while emitting messages in the configured order.
+     * Variables are set as attributes of each message, as callouts of several messages complete in any order.
+     */
+    private Flowable<KafkaMessage> doConcurrentCallOut(KafkaMessageExecutionContext ctx, Flowable<KafkaMessage> messages) {
+        int concurrency = configuration.getKafka().getConcurrency();
+        MessageOrdering ordering = configuration.getKafka().getOrdering() == null
+            ? MessageOrdering.GLOBAL
+            : configuration.getKafka().getOrdering();
+        Function<KafkaMessage, Maybe<KafkaMessage>> callOut = message ->
+            doCallOut(ctx, message, new ResponseScope(ctx.getTemplateEngine(message), message));
+        return switch (ordering) {
+            case GLOBAL -> messages.concatMapEager(message -> callOut.apply(message).toFlowable(), concurrency, 1);
+            case PARTITION -> messages
+                .groupBy(KafkaMessage::indexPartition)
+                .flatMap(
+                    partition -> partition.concatMapEager(message -> callOut.apply(message).toFlowable(), concurrency, 1),
+                    Integer.MAX_VALUE
+                );
+            case NONE -> messages.flatMapMaybe(callOut::apply, false, concurrency);
+        };
+    }
+
+    /**
+     * Group the messages in batches, bounded by the configured count, size and linger time, and make one callout per batch.
+     */
+    private Flowable<KafkaMessage> doBatchCallOut(KafkaMessageExecutionContext ctx, Flowable<KafkaMessage> messages) {
+        KafkaOptions kafkaOptions = configuration.getKafka();
+        return Flowable.defer(() -> {
+            var scheduler = scheduler(ctx.getComponent(Vertx.class));
+            return messages
+                .lift(new LingeringBuffer<KafkaMessage>(kafkaOptions.getBatchMaxMessages(), kafkaOptions.getBatchLingerMs(), scheduler))
+                .concatMapIterable(batch -> CalloutUtils.splitBatch(batch, kafkaOptions.getBatchMaxBytes()), 1)
+                .concatMapSingle(batch -> doCallOut(ctx, batch).andThen(Single.just(batch)))
+                .concatMapIterable(batch -> batch);
+        });
     }
 
-    private Completable doCallOut(BaseExecutionContext ctx, TemplateEngine templateEngine) {
-        return CalloutUtils.prepareCalloutRequest(templateEngine, configuration).flatMapCompletable(reqConfig -> {
-            if (configuration.isFireAndForget()) {
-                return Completable.fromRunnable(() -> executeCallOut(ctx, reqConfig).onErrorComplete().subscribe());
+    /**
+     * Make one callout for a batch of messages. Each element of the response array is processed with the template engine of its
+     * message, and its variables are set as attributes of that message.
+     */
+    private Completable doCallOut(KafkaMessageExecutionContext ctx, List<KafkaMessage> batch) {
+        List<ResponseScope> scopes = batch.stream().map(message -> new ResponseScope(ctx.getTemplateEngine(message), message)).toList();
+        return Flowable.fromIterable(scopes)
+            .concatMapSingle(scope -> CalloutUtils.prepareCalloutRequest(scope.templateEngine(), requestTemplate))
+            .toList()
+            .map(requests -> CalloutUtils.prepareBatchCalloutRequest(requests, batch))
+            .flatMapCompletable(reqConfig -> {
+                if (closing.get()) {
+                    return rejectWhileClosing(ctx);
+                }
+                var requestOpts = executionPlan.requestOptions(reqConfig);
+                var batchCallOut = sendTracedCallOut(CalloutContext.of(ctx), reqConfig, requestOpts, null, null);
+                if (configuration.isFireAndForget()) {
+                    return fireAndForgetDispatcher.dispatch(batchCallOut::ignoreElement);
+                }
+                return batchCallOut
+                    .map(calloutResponseWithDelegate ->
+                        CalloutUtils.splitBatchResponse(calloutResponseWithDelegate.calloutResponse(), batch.size())
+                    )
+                    .flatMapCompletable(responses ->
+                        Flowable.range(0, batch.size()).concatMapCompletable(i ->
+                            processCalloutResponse(ctx, scopes.get(i), new CalloutResponseWithDelegate(responses.get(i), null), null)
+                        )
+                    )
+                    .onErrorResumeNext(th -> handleCalloutError(ctx, th));
+            });
+    }
+
+    /**
+     * @param incomingBody the body of the request, response or message being processed, only read when it is the callout body
+     */
+    private Completable doCallOut(
+        BaseExecutionContext ctx,
+        ResponseScope scope,
+        Supplier<Maybe<io.gravitee.gateway.api.buffer.Buffer>> incomingBody
+    ) {
+        return prepareCalloutRequest(scope.templateEngine(), incomingBody).flatMapCompletable(reqConfig -> {
+            if (closing.get()) {
+                return rejectWhileClosing(ctx);
+            } else if (fireAndForgetBatcher != null) {
+                var background = background(ctx);
+                var fullBatches = fireAndForgetBatcher.add(reqConfig, batch -> flushAfterLinger(background, batch));
+                return Flowable.fromIterable(fullBatches).concatMapCompletable(batch -> flush(background, batch));
+            } else if (configuration.isFireAndForget() && spool(background(ctx)) != null) {
+                startReplay(background(ctx));
+                var calloutCtx = CalloutContext.of(ctx);
+                return fireAndForgetDispatcher.dispatch(
+                    () -> sendOrSpool(calloutCtx, reqConfig, true),
+                    () -> spool(calloutCtx, reqConfig).subscribe()
+                );
+            } else if (configuration.isFireAndForget()) {
+                return fireAndForgetDispatcher.dispatch(() -> executeCallOut(ctx, scope, reqConfig));
             } else {
-                return executeCallOut(ctx, reqConfig);
+                return executeCallOut(ctx, scope, reqConfig);
+            }
+        });
+    }
+
+    /**
+     * Reject a callout of an execution still running while the policy is closing, as it would take a new lease of the HTTP client
+     * once released. Fire and forget callouts are skipped, other callouts fail as if the target could not be reached.
+     */
+    private Completable rejectWhileClosing(BaseExecutionContext ctx) {
+        if (configuration.isFireAndForget()) {
+            ctx.withLogger(log).warn("Callout skipped as the policy is closing");
+            return Completable.complete();
+        }
+        return handleCalloutError(ctx, new CalloutException(new IllegalStateException("Callout policy is closing")));
+    }
+
+    private void flushAfterLinger(CalloutContext background, FireAndForgetBatcher.Batch batch) {
+        background
+            .vertx()
+            .setTimer(Math.max(1, configuration.getFireAndForgetOptions().getBatchLingerMs()), timerId -> {
+                if (fireAndForgetBatcher.remove(batch)) {
+                    flush(background, batch).subscribe();
+                }
+            });
+    }
+
+    /**
+     * Send a batch of fire and forget callouts as a single request, through the fire and forget dispatcher. Batches gather the
+     * callouts of several executions and are sent once they are over, with the background context.
+     */
+    private Completable flush(CalloutContext calloutCtx, FireAndForgetBatcher.Batch batch) {
+        Req reqConfig = CalloutUtils.prepareFireAndForgetBatchRequest(
+            batch.requests(),
+            configuration.getFireAndForgetOptions().getBatchFormat()
+        );
+        if (spool(calloutCtx) != null) {
+            startReplay(calloutCtx);
+        }
+        return fireAndForgetDispatcher.dispatch(
+            () -> sendOrSpool(calloutCtx, reqConfig, false),
+            () -> spool(calloutCtx, reqConfig).subscribe()
+        );
+    }
+
+    /**
+     * Send a fire and forget callout, and write it to the spool when it fails or its target responds with a 5xx status.
+     */
+    private Completable sendOrSpool(CalloutContext calloutCtx, Req reqConfig, boolean traced) {
+        RequestOptions requestOpts = executionPlan.requestOptions(reqConfig);
+        Single<CalloutResponseWithDelegate> callOut;
+        if (traced) {
+            ObservableHttpClientRequest observableHttpClientRequest = new ObservableHttpClientRequest(requestOpts);
+            Span httpRequestSpan = calloutCtx.tracer().startSpanFrom(observableHttpClientRequest);
+            callOut = traced(
+                calloutCtx,
+                httpRequestSpan,
+                sendCallOut(calloutCtx, reqConfig, requestOpts, observableHttpClientRequest, null, null)
+            );
+        } else {
+            callOut = sendCallOut(calloutCtx, reqConfig, requestOpts, null, null, null);
+        }
+        return callOut
+            .map(calloutResponseWithDelegate -> calloutResponseWithDelegate.calloutResponse().getStatus() < 500)
+            .onErrorReturnItem(false)
+            .flatMapCompletable(delivered -> delivered ? Completable.complete() : spool(calloutCtx, reqConfig));
+    }
+
+    private Completable spool(CalloutContext calloutCtx, Req reqConfig) {
+        if (spool == null) {
+            return Completable.complete();
+        }
+        return onSpool(calloutCtx, () -> {
+            if (!spool.append(CalloutUtils.toSpoolRecord(executionPlan.method(), reqConfig))) {
+                log.debug("Callout spool is full, dropping fire and forget callout to {}", reqConfig.url());
             }
         });
     }
 
-    private Completable executeCallOut(BaseExecutionContext ctx, Req reqConfig) {
-        var httpClient = getHttpClient(ctx);
-        var requestOpts = new RequestOptions().setAbsoluteURI(reqConfig.url).setMethod(convert(configuration.getMethod()));
+    /**
+     * Run a spool operation, which may create, map or delete segment files, on the worker pool, then get back to the caller's context.
+     */
+    private Completable onSpool(CalloutContext calloutCtx, Runnable operation) {
+        return Completable.fromRunnable(operation)
+            .subscribeOn(RxHelper.blockingScheduler(calloutCtx.vertx()))
+            .observeOn(scheduler(calloutCtx.vertx()));
+    }
+
+    /**
+     * Replay the spooled callouts every second, at the configured rate, on the event loop of the first execution using the spool.
+     * A spool shared by several policy instances is only replayed by one of them at a time.
+     */
+    private void startReplay(CalloutContext background) {
+        if (stopReplay != null || closing.get() || !replayStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Vertx vertx = background.vertx();
+        int rate = Math.max(1, configuration.getFireAndForgetOptions().getSpool().getReplayRatePerSecond());
+        long timerId = vertx.setPeriodic(1000, tick -> {
+            if (!closing.get() && spool.claimReplay(this) && spool.pending() > 0 && replaying.compareAndSet(false, true)) {
+                replay(background, rate)
+                    .doFinally(() -> replaying.set(false))
+                    .subscribe(() -> {}, th -> log.warn("Unable to replay spooled callouts", th));
+            }
+        });
+        stopReplay = () -> vertx.cancelTimer(timerId);
+    }
+
+    /**
+     * Replay spooled callouts one after the other, stopping at the first one failing again, which is kept for the next replay.
+     */
+    private Completable replay(CalloutContext calloutCtx, int remaining) {
+        return Completable.defer(() -> {
+            CalloutSpool.Entry entry = remaining > 0 && !closing.get() ? spool.poll() : null;
+            if (entry == null) {
+                return Completable.complete();
+            }
+            CalloutUtils.SpooledCallout spooled;
+            try {
+                spooled = CalloutUtils.fromSpoolRecord(entry.payload());
+            } catch (DecodeException | IllegalArgumentException | ClassCastException e) {
+                log.warn("Dropping a spooled callout which cannot be read", e);
+                return onSpool(calloutCtx, () -> spool.ack(entry)).andThen(replay(calloutCtx, remaining - 1));
+            }
+            // The spool may be shared with policies calling other methods: the callout is replayed with its own method.
+            Req reqConfig = spooled.request();
+            HttpMethod method = spooled.method() == null ? executionPlan.method() : spooled.method();
+            return sendCallOut(calloutCtx, reqConfig, executionPlan.requestOptions(reqConfig, method), null, null, null)
+                .map(calloutResponseWithDelegate -> calloutResponseWithDelegate.calloutResponse().getStatus() < 500)
+                .onErrorReturnItem(false)
+                .flatMapCompletable(delivered -> {
+                    if (delivered) {
+                        return onSpool(calloutCtx, () -> spool.ack(entry)).andThen(replay(calloutCtx, remaining - 1));
+                    }
+                    spool.requeue(entry);
+                    return Completable.complete();
+                });
+        });
+    }
+
+    private Single<Req> prepareCalloutRequest(
+        TemplateEngine templateEngine,
+        Supplier<Maybe<io.gravitee.gateway.api.buffer.Buffer>> incomingBody
+    ) {
+        var reqConfig = CalloutUtils.prepareCalloutRequest(templateEngine, requestTemplate);
+        if (configuration.getBodySource() != BodySource.INCOMING) {
+            return reqConfig;
+        }
+        // The incoming body is sent as is, without being decoded to a String and encoded back.
+        return reqConfig.zipWith(
+            incomingBody.get().map(CalloutUtils::toVertxBuffer).defaultIfEmpty(Buffer.buffer()),
+            (req, body) -> new Req(req.url(), Optional.empty(), req.headerList(), body)
+        );
+    }
+
+    private Completable executeCallOut(BaseExecutionContext ctx, ResponseScope scope, Req reqConfig) {
+        if (responseCache == null) {
+            return executeCallOut(ctx, scope, reqConfig, null, null);
+        }
+
+        var cacheKey = CalloutCacheKey.of(configuration.getMethod(), reqConfig);
+        var lookup = responseCache.lookup(cacheKey);
+        return switch (lookup.state()) {
+            case FRESH -> processCalloutResponse(ctx, scope, new CalloutResponseWithDelegate(lookup.entry().response(), null), null);
+            case STALE -> {
+                revalidateInBackground(background(ctx), reqConfig, cacheKey, lookup.entry());
+                yield processCalloutResponse(ctx, scope, new CalloutResponseWithDelegate(lookup.entry().response(), null), null);
+            }
+            case EXPIRED -> executeCallOut(ctx, scope, reqConfig, cacheKey, lookup.entry());
+            case MISS -> executeCallOut(ctx, scope, reqConfig, cacheKey, null);
+        };
+    }
+
+    private Completable executeCallOut(
+        BaseExecutionContext ctx,
+        ResponseScope scope,
+        Req reqConfig,
+        CalloutCacheKey cacheKey,
+        CachedCallout cachedCallout
+    ) {
+        var requestOpts = executionPlan.requestOptions(reqConfig);
+        var calloutCtx = CalloutContext.of(ctx);
+
+        if (singleFlight != null) {
+            var flightKey = cacheKey != null ? cacheKey : CalloutCacheKey.of(configuration.getMethod(), reqConfig);
+            return singleFlight
+                .execute(flightKey, () -> sendTracedCallOut(calloutCtx, reqConfig, requestOpts, cacheKey, cachedCallout))
+                .flatMapCompletable(calloutResponseWithDelegate -> processCalloutResponse(ctx, scope, calloutResponseWithDelegate, null))
+                .onErrorResumeNext(th -> handleCalloutError(ctx, th));
+        }
+
         ObservableHttpClientRequest observableHttpClientRequest = new ObservableHttpClientRequest(requestOpts);
         Span httpRequestSpan = ctx.getTracer().startSpanFrom(observableHttpClientRequest);
-        return httpClient
+        return sendCallOut(calloutCtx, reqConfig, requestOpts, observableHttpClientRequest, cacheKey, cachedCallout)
+            .flatMapCompletable(calloutResponseWithDelegate ->
+                processCalloutResponse(ctx, scope, calloutResponseWithDelegate, httpRequestSpan)
+            )
+            .onErrorResumeNext(th -> {
+                ctx.getTracer().endOnError(httpRequestSpan, th);
+                return handleCalloutError(ctx, th);
+            });
+    }
+
+    private Completable handleCalloutError(BaseExecutionContext ctx, Throwable th) {
+        if (th instanceof CalloutException calloutException && configuration.isExitOnError()) {
+            ctx.withLogger(log).error(th.getCause().getMessage(), th.getCause());
+            metrics.recordInterruption(CalloutMetrics.api(ctx), calloutException.isTimeout() ? "timeout" : "exception");
+            if (ctx instanceof HttpPlainExecutionContext httpContext) {
+                return httpContext.interruptWith(
+                    new ExecutionFailure(configuration.getErrorStatusCode())
+                        .key(calloutException.isTimeout() ? CALLOUT_HTTP_TIMEOUT : CALLOUT_HTTP_ERROR)
+                        .message(th.getCause().getMessage())
+                        .cause(th)
+                );
+            } else if (ctx instanceof KafkaMessageExecutionContext kafkaContext) {
+                return kafkaContext
+                    .executionContext()
+                    .interruptWith(
+                        calloutException.isTimeout()
+                            ? org.apache.kafka.common.protocol.Errors.REQUEST_TIMED_OUT
+                            : org.apache.kafka.common.protocol.Errors.UNKNOWN_SERVER_ERROR
+                    );
+            }
+        }
+        return Completable.error(th);
+    }
+
+    /**
+     * Send a callout shared by several executions. Its span only covers the HTTP exchange, as the response is then
+     * processed by each execution on its own.
+     */
+    private Single<CalloutResponseWithDelegate> sendTracedCallOut(
+        CalloutContext calloutCtx,
+        Req reqConfig,
+        RequestOptions requestOpts,
+        CalloutCacheKey cacheKey,
+        CachedCallout cachedCallout
+    ) {
+        ObservableHttpClientRequest observableHttpClientRequest = new ObservableHttpClientRequest(requestOpts);
+        Span httpRequestSpan = calloutCtx.tracer().startSpanFrom(observableHttpClientRequest);
+        return sendCallOut(calloutCtx, reqConfig, requestOpts, observableHttpClientRequest, cacheKey, cachedCallout)
+            .doOnSuccess(calloutResponseWithDelegate -> {
+                calloutResponseWithDelegate.timings().applyTo(httpRequestSpan);
+                calloutCtx
+                    .tracer()
+                    .endWithResponse(httpRequestSpan, new ObservableHttpClientResponse(calloutResponseWithDelegate.httpClientResponse()));
+            })
+            .doOnError(th -> calloutCtx.tracer().endOnError(httpRequestSpan, th));
+    }
+
+    /**
+     * Refresh a stale cache entry without delaying the current execution, which is served with the stale response.
+     */
+    private void revalidateInBackground(CalloutContext calloutCtx, Req reqConfig, CalloutCacheKey cacheKey, CachedCallout cachedCallout) {
+        if (!cachedCallout.startRevalidation()) {
+            return;
+        }
+
+        var requestOpts = executionPlan.requestOptions(reqConfig);
+        sendCallOut(calloutCtx, reqConfig, requestOpts, null, cacheKey, cachedCallout)
+            .doFinally(cachedCallout::endRevalidation)
+            .subscribe(
+                calloutResponseWithDelegate -> {},
+                throwable -> log.debug("Unable to revalidate cached callout response: {}", throwable.getMessage())
+            );
+    }
+
+    /**
+     * Send the callout request and read its response, retrying it when enabled, within the configured request timeout.
+     *
+     * @param observableHttpClientRequest the request observed by the tracer, <code>null</code> when the call is not traced
+     * @param cacheKey the key used to store the response, <code>null</code> when the cache is disabled
+     * @param cachedCallout the cached entry to revalidate with a conditional request, <code>null</code> if none
+     */
+    private Single<CalloutResponseWithDelegate> sendCallOut(
+        CalloutContext calloutCtx,
+        Req reqConfig,
+        RequestOptions requestOpts,
+        ObservableHttpClientRequest observableHttpClientRequest,
+        CalloutCacheKey cacheKey,
+        CachedCallout cachedCallout
+    ) {
+        Single<CalloutResponseWithDelegate> callOut;
+        RetryOptions retry = configuration.getRetry();
+        if (retry != null && retry.isEnabled() && CalloutUtils.isIdempotent(requestOpts.getMethod())) {
+            callOut = Single.defer(() -> {
+                RetryBudget.shared().deposit(retry.getBudgetRatio());
+                return sendWithRetries(calloutCtx, reqConfig, requestOpts, observableHttpClientRequest, cacheKey, cachedCallout, 0);
+            });
+        } else {
+            callOut = sendAttempt(calloutCtx, reqConfig, requestOpts, observableHttpClientRequest, cacheKey, cachedCallout);
+        }
+
+        HedgingOptions hedging = configuration.getHedging();
+        if (hedging != null && hedging.isEnabled() && CalloutUtils.isIdempotent(requestOpts.getMethod())) {
+            callOut = hedge(calloutCtx, callOut, () -> {
+                if (observableHttpClientRequest == null) {
+                    return sendAttempt(calloutCtx, reqConfig, requestOpts, null, cacheKey, cachedCallout);
+                }
+                ObservableHttpClientRequest hedgedRequest = new ObservableHttpClientRequest(requestOpts);
+                Span hedgedSpan = calloutCtx.tracer().startSpanFrom(hedgedRequest);
+                hedgedSpan.withAttribute("http.request.hedged", "true");
+                return traced(
+                    calloutCtx,
+                    hedgedSpan,
+                    sendAttempt(calloutCtx, reqConfig, requestOpts, hedgedRequest, cacheKey, cachedCallout)
+                );
+            });
+        }
+
+        long requestTimeout = configuration.getHttpOptions().getRequestTimeoutMs();
+        if (requestTimeout > 0) {
+            callOut = callOut.timeout(
+                requestTimeout,
+                TimeUnit.MILLISECONDS,
+                scheduler(calloutCtx.vertx()),
+                Single.error(() -> new CalloutException(new TimeoutException("Callout did not complete within " + requestTimeout + "ms")))
+            );
+        }
+        Single<CalloutResponseWithDelegate> measuredCallOut = callOut;
+        return Single.defer(() -> {
+            metrics.registerGauges(calloutCtx.api(), this);
+            long start = System.nanoTime();
+            return measuredCallOut
+                .doOnSuccess(calloutResponseWithDelegate ->
+                    metrics.recordResponse(
+                        calloutCtx.api(),
+                        requestOpts,
+                        System.nanoTime() - start,
+                        calloutResponseWithDelegate.calloutResponse().getStatus()
+                    )
+                )
+                .doOnError(th -> metrics.recordFailure(calloutCtx.api(), requestOpts, System.nanoTime() - start, th));
+        })
+            .doOnSubscribe(disposable -> inFlight.incrementAndGet())
+            .doFinally(this::endCallOut);
+    }
+
+    /**
+     * Send an attempt of the callout, then retry it after an exponential backoff when it fails with a connection error, a timeout or
+     * one of the configured status codes, as long as the maximum number of retries and the node-wide {@link RetryBudget} allow it.
+     * Each retry is traced with its own span, holding the <code>http.request.resend_count</code> attribute.
+     */
+    private Single<CalloutResponseWithDelegate> sendWithRetries(
+        CalloutContext calloutCtx,
+        Req reqConfig,
+        RequestOptions requestOpts,
+        ObservableHttpClientRequest observableHttpClientRequest,
+        CalloutCacheKey cacheKey,
+        CachedCallout cachedCallout,
+        int retries
+    ) {
+        RetryOptions retry = configuration.getRetry();
+
+        ObservableHttpClientRequest attemptRequest = observableHttpClientRequest;
+        Span retrySpan = null;
+        if (retries > 0 && observableHttpClientRequest != null) {
+            attemptRequest = new ObservableHttpClientRequest(requestOpts);
+            retrySpan = calloutCtx.tracer().startSpanFrom(attemptRequest);
+            retrySpan.withAttribute("http.request.resend_count", String.valueOf(retries));
+        }
+
+        Single<CalloutResponseWithDelegate> attempt = sendAttempt(
+            calloutCtx,
+            reqConfig,
+            requestOpts,
+            attemptRequest,
+            cacheKey,
+            cachedCallout
+        );
+        if (retry.getPerAttemptTimeoutMs() > 0) {
+            attempt = attempt.timeout(
+                retry.getPerAttemptTimeoutMs(),
+                TimeUnit.MILLISECONDS,
+                scheduler(calloutCtx.vertx()),
+                Single.error(() ->
+                    new CalloutException(
+                        new TimeoutException("Callout attempt did not complete within " + retry.getPerAttemptTimeoutMs() + "ms")
+                    )
+                )
+            );
+        }
+        if (retrySpan != null) {
+            attempt = traced(calloutCtx, retrySpan, attempt);
+        }
+
+        Supplier<Single<CalloutResponseWithDelegate>> nextAttempt = () ->
+            Single.timer(CalloutUtils.retryBackoff(retry, retries), TimeUnit.MILLISECONDS, scheduler(calloutCtx.vertx())).flatMap(tick ->
+                sendWithRetries(calloutCtx, reqConfig, requestOpts, observableHttpClientRequest, cacheKey, cachedCallout, retries + 1)
+            );
+        return attempt
+            .map(calloutResponseWithDelegate -> {
+                int status = calloutResponseWithDelegate.calloutResponse().getStatus();
+                return retry.getRetryOnStatus() != null && retry.getRetryOnStatus().contains(status) && canRetry(retries)
+                    ? nextAttempt.get()
+                    : Single.just(calloutResponseWithDelegate);
+            })
+            .onErrorReturn(th -> isRetryable(th) && canRetry(retries) ? nextAttempt.get() : Single.error(th))
+            .flatMap(next -> next);
+    }
+
+    /**
+     * Send a hedged attempt when the callout did not complete within the hedging delay, as long as the hedging budget allows it.
+     * The first attempt to respond wins and the other one is cancelled. Once the hedged attempt is sent, the failure of either attempt
+     * is ignored while the other one is in flight, the failure of the first attempt being signaled when both fail.
+     */
+    private Single<CalloutResponseWithDelegate> hedge(
+        CalloutContext calloutCtx,
+        Single<CalloutResponseWithDelegate> callOut,
+        Supplier<Single<CalloutResponseWithDelegate>> hedgedAttempt
+    ) {
+        HedgingOptions hedging = configuration.getHedging();
+        return Single.defer(() -> {
+            hedgeBudget.deposit(hedging.getMaxHedgeRatio());
+            long delay = hedging.getDelayPercentile() > 0
+                ? latencies.percentile(hedging.getDelayPercentile(), hedging.getDelayMs())
+                : hedging.getDelayMs();
+            long start = System.nanoTime();
+            AtomicBoolean hedgeSent = new AtomicBoolean();
+            AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+            // The first failing attempt never completes, so that it cannot cancel the other attempt still in flight.
+            Single<CalloutResponseWithDelegate> hedged = Single.timer(delay, TimeUnit.MILLISECONDS, scheduler(calloutCtx.vertx())).flatMap(
+                tick -> {
+                    if (!hedgeBudget.tryWithdraw()) {
+                        return Single.never();
+                    }
+                    hedgeSent.set(true);
+                    return hedgedAttempt
+                        .get()
+                        .onErrorResumeNext(th -> firstFailure.compareAndSet(null, th) ? Single.never() : Single.error(firstFailure.get()));
+                }
+            );
+            // A first attempt losing the race is recorded with the time it took to be cancelled, which is a lower bound of its latency.
+            Single<CalloutResponseWithDelegate> recorded = callOut
+                .doOnSuccess(calloutResponseWithDelegate -> latencies.record(elapsedMs(start)))
+                .doOnDispose(() -> latencies.record(elapsedMs(start)))
+                .onErrorResumeNext(th -> hedgeSent.get() && firstFailure.compareAndSet(null, th) ? Single.never() : Single.error(th));
+            // Unlike amb, merge does not dispose the winning attempt, so only the losing one is cancelled.
+            return Single.merge(recorded, hedged).firstOrError();
+        });
+    }
+
+    /**
+     * End the span of an additional attempt with its response or its failure, or as cancelled when the attempt is disposed.
+     */
+    private Single<CalloutResponseWithDelegate> traced(CalloutContext calloutCtx, Span span, Single<CalloutResponseWithDelegate> attempt) {
+        return attempt
+            .doOnSuccess(calloutResponseWithDelegate -> {
+                calloutResponseWithDelegate.timings().applyTo(span);
+                calloutCtx
+                    .tracer()
+                    .endWithResponse(span, new ObservableHttpClientResponse(calloutResponseWithDelegate.httpClientResponse()));
+            })
+            .doOnError(th -> calloutCtx.tracer().endOnError(span, th))
+            .doOnDispose(() -> calloutCtx.tracer().endOnError(span, new CancellationException("Callout attempt cancelled")));
+    }
+
+    /**
+     * Only transient failures are retried: others, such as a response body exceeding the maximum size, would fail again.
+     */
+    private static boolean isRetryable(Throwable th) {
+        return th instanceof CalloutException calloutException && (calloutException.isTimeout() || calloutException.isConnectionFailure());
+    }
+
+    private boolean canRetry(int retries) {
+        return retries < configuration.getRetry().getMaxRetries() && RetryBudget.shared().tryWithdraw();
+    }
+
+    /**
+     * @return a scheduler running on the caller's context, so that delayed signals are processed on the event loop
+     */
+    private static Scheduler scheduler(Vertx vertx) {
+        return RxHelper.scheduler(vertx.getOrCreateContext());
+    }
+
+    private Single<CalloutResponseWithDelegate> sendAttempt(
+        CalloutContext calloutCtx,
+        Req reqConfig,
+        RequestOptions requestOpts,
+        ObservableHttpClientRequest observableHttpClientRequest,
+        CalloutCacheKey cacheKey,
+        CachedCallout cachedCallout
+    ) {
+        Single<CalloutResponseWithDelegate> attempt = Single.defer(() -> {
+            var timings = new CalloutTimings();
+            return sendRequest(calloutCtx, reqConfig, requestOpts, observableHttpClientRequest, cachedCallout, timings)
+                .flatMap(httpClientResponse ->
+                    readBody(httpClientResponse)
+                        .onErrorResumeNext(throwable -> Single.error(new CalloutException(throwable)))
+                        .map(responseBody -> {
+                            timings.bodyRead(responseBody.length());
+                            metrics.recordResponseSize(calloutCtx.api(), requestOpts, responseBody.length());
+                            var calloutResponse = new CalloutResponse(httpClientResponse.getDelegate(), responseBody);
+                            if (cacheKey == null) {
+                                return calloutResponse;
+                            }
+                            if (cachedCallout != null && calloutResponse.getStatus() == HttpStatusCode.NOT_MODIFIED_304) {
+                                return responseCache.revalidated(cacheKey, cachedCallout, calloutResponse.getHeaders());
+                            }
+                            responseCache.put(cacheKey, calloutResponse);
+                            return calloutResponse;
+                        })
+                        .map(calloutResponse -> new CalloutResponseWithDelegate(calloutResponse, httpClientResponse.getDelegate(), timings))
+                        .doOnDispose(() -> httpClientResponse.request().getDelegate().reset())
+                );
+        });
+        return circuitBreakers == null ? attempt : withCircuitBreaker(requestOpts, attempt);
+    }
+
+    /**
+     * Send the callout request, recording in the timings when a connection is obtained and when the response headers are received.
+     */
+    private Single<io.vertx.rxjava3.core.http.HttpClientResponse> sendRequest(
+        CalloutContext calloutCtx,
+        Req reqConfig,
+        RequestOptions requestOpts,
+        ObservableHttpClientRequest observableHttpClientRequest,
+        CachedCallout cachedCallout,
+        CalloutTimings timings
+    ) {
+        long start = System.nanoTime();
+        return getHttpClient(calloutCtx)
             .rxRequest(requestOpts)
+            .doOnSuccess(req -> {
+                timings.connectionAcquired();
+                metrics.recordConnectionWait(calloutCtx.api(), requestOpts, System.nanoTime() - start);
+            })
             .flatMap(req -> {
-                observableHttpClientRequest.httpClientRequest(req.getDelegate());
-                ctx.getTracer().injectSpanContext(req::putHeader);
-                if (reqConfig.headerList() != null) {
-                    reqConfig
-                        .headerList()
-                        .stream()
-                        .filter(header -> header.getValue() != null)
-                        .forEach(header -> req.putHeader(header.getName(), header.getValue()));
+                if (observableHttpClientRequest != null) {
+                    observableHttpClientRequest.httpClientRequest(req.getDelegate());
+                    calloutCtx.tracer().injectSpanContext(req::putHeader);
+                }
+                executionPlan.applyHeaders(req.getDelegate(), reqConfig);
+                if (cachedCallout != null && cachedCallout.etag() != null) {
+                    req.putHeader(HttpHeaders.IF_NONE_MATCH, cachedCallout.etag());
+                }
+                if (cachedCallout != null && cachedCallout.lastModified() != null) {
+                    req.putHeader(HttpHeaders.IF_MODIFIED_SINCE, cachedCallout.lastModified());
                 }
 
-                if (reqConfig.body().isPresent() && !reqConfig.body().get().isEmpty()) {
+                Buffer body = reqConfig.rawBody() != null
+                    ? reqConfig.rawBody()
+                    : reqConfig.body().filter(content -> !content.isEmpty()).map(Buffer::buffer).orElse(null);
+                if (body != null && body.length() > 0) {
                     req.headers().remove(HttpHeaders.TRANSFER_ENCODING);
                     // Removing Content-Length header to let VertX automatically set it correctly
                     req.headers().remove(HttpHeaders.CONTENT_LENGTH);
-                    return req.rxSend(Buffer.buffer(reqConfig.body().get()));
+                    Buffer sentBody = compress(req, body);
+                    timings.requestSent(sentBody.length());
+                    return req.rxSend(sentBody).doOnDispose(() -> req.getDelegate().reset());
                 }
 
-                return req.send();
+                return req.send().doOnDispose(() -> req.getDelegate().reset());
             })
-            .onErrorResumeNext(throwable -> Single.error(new CalloutException(throwable)))
-            .flatMap(httpClientResponse ->
-                httpClientResponse
-                    .body()
-                    .map(responseBody -> new CalloutResponse(httpClientResponse.getDelegate(), responseBody.toString()))
-                    .map(calloutResponse -> new CalloutResponseWithDelegate(calloutResponse, httpClientResponse.getDelegate()))
-            )
-            .flatMapCompletable(calloutResponseWithDelegate -> processCalloutResponse(ctx, calloutResponseWithDelegate, httpRequestSpan))
-            .onErrorResumeNext(th -> {
-                ctx.getTracer().endOnError(httpRequestSpan, th);
+            .doOnSuccess(httpClientResponse -> timings.responseReceived())
+            .onErrorResumeNext(throwable -> Single.error(new CalloutException(throwable)));
+    }
 
-                if (th instanceof CalloutException && configuration.isExitOnError()) {
-                    ctx.withLogger(log).error(th.getCause().getMessage(), th.getCause());
-                    if (ctx instanceof HttpPlainExecutionContext httpContext) {
-                        return httpContext.interruptWith(
-                            new ExecutionFailure(configuration.getErrorStatusCode())
-                                .key(CALLOUT_HTTP_ERROR)
-                                .message(th.getCause().getMessage())
-                                .cause(th)
-                        );
-                    } else if (ctx instanceof KafkaMessageExecutionContext kafkaContext) {
-                        return kafkaContext.executionContext().interruptWith(org.apache.kafka.common.protocol.Errors.UNKNOWN_SERVER_ERROR);
+    /**
+     * Reject the attempt while the circuit breaker of its target host is open, otherwise report its outcome to the circuit breaker.
+     * Connection errors, timeouts and 5xx responses are recorded as failures.
+     */
+    private Single<CalloutResponseWithDelegate> withCircuitBreaker(
+        RequestOptions requestOpts,
+        Single<CalloutResponseWithDelegate> attempt
+    ) {
+        String target = requestOpts.getHost() + ":" + requestOpts.getPort();
+        CircuitBreaker circuitBreaker = circuitBreaker(target);
+        return Single.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Single.error(new CircuitBreakerOpenException(target));
+            }
+            long start = System.nanoTime();
+            return attempt
+                .doOnSuccess(calloutResponseWithDelegate ->
+                    circuitBreaker.onResult(elapsedMs(start), calloutResponseWithDelegate.calloutResponse().getStatus() >= 500)
+                )
+                .doOnError(th -> circuitBreaker.onResult(elapsedMs(start), true))
+                .doOnDispose(() -> circuitBreaker.onCancel(elapsedMs(start)));
+        });
+    }
+
+    /**
+     * @return the circuit breaker of the target. Once the maximum number of circuit breakers is reached, the closed ones are evicted,
+     * only losing the outcomes of their last calls, and the shared circuit breaker is used while there are still too many open ones.
+     */
+    CircuitBreaker circuitBreaker(String target) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(target);
+        if (circuitBreaker != null) {
+            return circuitBreaker;
+        }
+        if (circuitBreakers.size() >= MAX_CIRCUIT_BREAKERS) {
+            circuitBreakers.values().removeIf(breaker -> breaker.state() == CircuitBreaker.State.CLOSED);
+        }
+        return circuitBreakers.computeIfAbsent(circuitBreakers.size() < MAX_CIRCUIT_BREAKERS ? target : OTHER_TARGETS, key ->
+            new CircuitBreaker(configuration.getCircuitBreaker())
+        );
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Compress the request body when enabled and above the configured threshold, unless a content encoding is already set.
+     */
+    private Buffer compress(io.vertx.rxjava3.core.http.HttpClientRequest req, Buffer body) {
+        var httpOptions = configuration.getHttpOptions();
+        if (req.headers().contains(HttpHeaders.CONTENT_ENCODING)) {
+            return body;
+        }
+        Buffer compressed = CalloutUtils.compress(body, httpOptions.getRequestCompression(), httpOptions.getRequestCompressionThreshold());
+        if (compressed != body) {
+            String encoding = httpOptions.getRequestCompression() == RequestCompression.GZIP ? "gzip" : "deflate";
+            req.putHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return compressed;
+    }
+
+    /**
+     * Read the response body as a stream, within the configured maximum size. The body is discarded without being
+     * buffered in fire and forget mode, as it is never used.
+     */
+    private Single<Buffer> readBody(io.vertx.rxjava3.core.http.HttpClientResponse httpClientResponse) {
+        if (configuration.isFireAndForget()) {
+            return httpClientResponse.toFlowable().ignoreElements().toSingleDefault(Buffer.buffer());
+        }
+
+        long maxSize = configuration.getHttpOptions().getMaxResponseBodySize();
+        if (maxSize <= 0) {
+            return httpClientResponse.body();
+        }
+
+        boolean truncate = configuration.getHttpOptions().getResponseBodyOverflow() == ResponseBodyOverflow.TRUNCATE;
+        long contentLength = CalloutUtils.contentLength(httpClientResponse.getHeader(HttpHeaders.CONTENT_LENGTH));
+        if (!truncate && contentLength > maxSize) {
+            httpClientResponse.request().getDelegate().reset();
+            return Single.error(new IllegalStateException("Callout response body exceeds the maximum size of " + maxSize + " bytes"));
+        }
+
+        return Single.defer(() -> {
+            var body = Buffer.buffer();
+            return httpClientResponse
+                .toFlowable()
+                .map(chunk -> {
+                    if (body.length() + chunk.length() <= maxSize) {
+                        body.appendBuffer(chunk);
+                        return truncate && body.length() == maxSize;
                     }
-                }
-                return Completable.error(th);
-            });
+                    if (!truncate) {
+                        throw new IllegalStateException("Callout response body exceeds the maximum size of " + maxSize + " bytes");
+                    }
+                    body.appendBuffer(chunk, 0, (int) (maxSize - body.length()));
+                    return true;
+                })
+                .takeUntil(full -> full)
+                .ignoreElements()
+                // Stop reading the rest of the response, which closes the HTTP/1.1 connection.
+                .doOnComplete(() -> {
+                    if (truncate && body.length() == maxSize) {
+                        httpClientResponse.request().getDelegate().reset();
+                    }
+                })
+                .doOnError(throwable -> httpClientResponse.request().getDelegate().reset())
+                .toSingleDefault(body);
+        });
     }
 
+    private void endCallOut() {
+        if (inFlight.decrementAndGet() == 0 && queuedFireAndForget() == 0 && closing.get()) {
+            drained.onComplete();
+        }
+    }
+
+    /**
+     * Apply the callout response to the execution context.
+     *
+     * @param ctx the current execution context
+     * @param scope the template engine evaluating the response and where its variables are set
+     * @param calloutResponseWithDelegate the callout response, without delegate when it is served from the cache
+     * @param httpRequestSpan the span of the HTTP call, <code>null</code> when no call has been made
+     * @return a {@link Completable} completing once variables are set or the execution is interrupted
+     */
     private Completable processCalloutResponse(
         BaseExecutionContext ctx,
+        ResponseScope scope,
         CalloutResponseWithDelegate calloutResponseWithDelegate,
         Span httpRequestSpan
     ) {
@@ -164,54 +1115,76 @@ public class CalloutHttpPolicy extends CalloutHttpPolicyV3 implements HttpPolicy
         HttpClientResponse httpClientResponse = calloutResponseWithDelegate.httpClientResponse();
 
         // Create observable response for tracing
-        ObservableHttpClientResponse observableHttpClientResponse = new ObservableHttpClientResponse(httpClientResponse);
+        ObservableHttpClientResponse observableHttpClientResponse = httpRequestSpan != null
+            ? new ObservableHttpClientResponse(httpClientResponse)
+            : null;
+
+        if (httpRequestSpan != null && calloutResponseWithDelegate.timings() != null) {
+            calloutResponseWithDelegate.timings().applyTo(httpRequestSpan);
+        }
 
         if (configuration.isFireAndForget()) {
-            ctx.getTracer().endWithResponse(httpRequestSpan, observableHttpClientResponse);
+            if (httpRequestSpan != null) {
+                ctx.getTracer().endWithResponse(httpRequestSpan, observableHttpClientResponse);
+            }
             return Completable.complete();
         }
 
         // Variables and exit on error are only managed if the fire & forget is disabled.
-        ctx.getTemplateEngine().getTemplateContext().setVariable(TEMPLATE_VARIABLE, calloutResponse);
+        long processingStart = System.nanoTime();
+        scope.templateEngine().getTemplateContext().setVariable(TEMPLATE_VARIABLE, calloutResponse);
 
+        Completable processing;
         if (configuration.isExitOnError()) {
-            return ctx
-                .getTemplateEngine()
+            processing = scope
+                .templateEngine()
                 .eval(configuration.getErrorCondition(), Boolean.class)
                 .flatMapCompletable(exit -> {
                     if (!exit) {
-                        ctx.getTracer().endWithResponse(httpRequestSpan, observableHttpClientResponse);
-                        return processSuccess(ctx);
+                        return processSuccess(ctx, scope);
                     }
-                    httpRequestSpan.withAttribute(
-                        "error.condition.evaluation.message",
-                        "Callout failed due to error condition evaluation: " + configuration.getErrorCondition()
-                    );
-                    return processError(ctx);
+                    if (httpRequestSpan != null) {
+                        httpRequestSpan.withAttribute(
+                            "error.condition.evaluation.message",
+                            "Callout failed due to error condition evaluation: " + configuration.getErrorCondition()
+                        );
+                    }
+                    return processError(ctx, scope);
                 });
+        } else {
+            processing = processSuccess(ctx, scope);
+        }
+        if (httpRequestSpan == null) {
+            return processing;
         }
-        ctx.getTracer().endWithResponse(httpRequestSpan, observableHttpClientResponse);
-        return processSuccess(ctx);
+        // The span is ended once the response is processed so that it covers the EL evaluation. On error, it is ended by the caller.
+        return processing
+            .doOnError(th -> CalloutTimings.applyElProcessing(httpRequestSpan, processingStart))
+            .doOnComplete(() -> {
+                CalloutTimings.applyElProcessing(httpRequestSpan, processingStart);
+                ctx.getTracer().endWithResponse(httpRequestSpan, observableHttpClientResponse);
+            });
     }
 
-    private Completable processSuccess(BaseExecutionContext ctx) {
+    private Completable processSuccess(BaseExecutionContext ctx, ResponseScope scope) {
         return Flowable.fromIterable(configuration.getVariables())
             .flatMapCompletable(variable -> {
-                ctx.setAttribute(variable.getName(), null);
+                scope.setVariable(ctx, variable.getName(), null);
                 return Maybe.just(variable)
                     .flatMap(var -> {
                         Class<?> clazz = var.isEvaluateAsString() ? String.class : Object.class;
-                        return ctx.getTemplateEngine().eval(var.getValue(), clazz);
+                        return scope.templateEngine().eval(var.getValue(), clazz);
                     })
-                    .doOnSuccess(value -> ctx.setAttribute(variable.getName(), value))
+                    .doOnSuccess(value -> scope.setVariable(ctx, variable.getName(), value))
                     .ignoreElement();
             })
-            .doOnComplete(() -> ctx.getTemplateEngine().getTemplateContext().setVariable(TEMPLATE_VARIABLE, null));
+            .doOnComplete(() -> scope.templateEngine().getTemplateContext().setVariable(TEMPLATE_VARIABLE, null));
     }
 
-    private Completable processError(BaseExecutionContext ctx) {
+    private Completable processError(BaseExecutionContext ctx, ResponseScope scope) {
+        metrics.recordInterruption(CalloutMetrics.api(ctx), "error_condition");
         return Maybe.fromSupplier(configuration::getErrorContent)
-            .flatMap(content -> ctx.getTemplateEngine().eval(content, String.class))
+            .flatMap(content -> scope.templateEngine().eval(content, String.class))
             .switchIfEmpty(Single.just("Request is terminated."))
             .flatMapCompletable(errorContent -> {
                 if (ctx instanceof HttpPlainExecutionContext httpContext) {
@@ -226,45 +1199,108 @@ public class CalloutHttpPolicy extends CalloutHttpPolicyV3 implements HttpPolicy
             });
     }
 
-    public record Req(String url, Optional<String> body, List<HttpHeader> headerList) {}
+    /**
+     * The template engine evaluating a callout response, and where its variables are set.
+     *
+     * @param message the Kafka message the variables are set on as attributes, <code>null</code> to set them on the execution context
+     */
+    private record ResponseScope(TemplateEngine templateEngine, KafkaMessage message) {
+        static ResponseScope of(BaseExecutionContext ctx) {
+            return new ResponseScope(ctx.getTemplateEngine(), null);
+        }
+
+        void setVariable(BaseExecutionContext ctx, String name, Object value) {
+            if (message == null) {
+                ctx.setAttribute(name, value);
+            } else if (value == null) {
+                message.removeAttribute(name);
+            } else {
+                message.attribute(name, value);
+            }
+        }
+    }
+
+    /**
+     * @param rawBody the body sent as is, without EL evaluation, <code>null</code> to send the evaluated body
+     */
+    public record Req(String url, Optional<String> body, List<HttpHeader> headerList, Buffer rawBody) {
+        public Req(String url, Optional<String> body, List<HttpHeader> headerList) {
+            this(url, body, headerList, null);
+        }
+    }
+
+    /**
+     * What a callout needs from its execution context. Callouts sent in the background, once their execution is over, use the one
+     * captured from the first execution needing it, so that they do not keep executions reachable.
+     *
+     * @param tracer the tracer of the execution, <code>null</code> for callouts sent in the background, which are not traced
+     */
+    private record CalloutContext(Vertx vertx, String api, Configuration nodeConfiguration, Tracer tracer) {
+        static CalloutContext of(BaseExecutionContext ctx) {
+            return new CalloutContext(
+                ctx.getComponent(Vertx.class),
+                CalloutMetrics.api(ctx),
+                ctx.getComponent(Configuration.class),
+                ctx.getTracer()
+            );
+        }
+
+        CalloutContext detached() {
+            return new CalloutContext(vertx, api, nodeConfiguration, null);
+        }
+    }
+
+    /**
+     * @return the context of the callouts sent in the background, captured from the first execution needing it
+     */
+    private CalloutContext background(BaseExecutionContext ctx) {
+        if (background == null) {
+            background = CalloutContext.of(ctx).detached();
+        }
+        return background;
+    }
 
     /**
      *
      * @param ctx The context to get Vertx component
-     * @return Built or existing HttpClient
+     * @return Built or existing HttpClient, shared with the policies configured with the same options
      */
     HttpClient getHttpClient(BaseExecutionContext ctx) {
-        if (this.httpClient == null) {
+        return getHttpClient(CalloutContext.of(ctx));
+    }
+
+    private HttpClient getHttpClient(CalloutContext calloutCtx) {
+        if (this.httpClientLease == null) {
             synchronized (this) {
-                if (this.httpClient == null) {
-                    // SSL options (trustAll, verifyHost) are set at client level but only applied per-request
-                    // when the URL scheme is HTTPS. Vertx's RequestOptions.setAbsoluteURI() overrides the client
-                    // SSL setting based on the actual URL scheme, so HTTP requests are not affected.
-                    var options = new HttpClientOptions().setSsl(true).setTrustAll(true).setVerifyHost(false);
+                if (this.httpClientLease == null) {
+                    var options = CalloutHttpClientOptionsUtils.buildHttpClientOptions(configuration.getHttpOptions());
 
                     if (configuration.isUseSystemProxy()) {
-                        Configuration config = ctx.getComponent(Configuration.class);
                         try {
-                            options.setProxyOptions(VertxProxyOptionsUtils.buildProxyOptions(config));
+                            options.setProxyOptions(VertxProxyOptionsUtils.buildProxyOptions(calloutCtx.nodeConfiguration()));
                         } catch (IllegalStateException e) {
-                            ctx
-                                .withLogger(log)
-                                .warn(
-                                    "CalloutHttp requires a system proxy to be defined but some configurations are missing or not well defined: {}. Ignoring proxy",
-                                    e.getMessage()
-                                );
+                            log.warn(
+                                "CalloutHttp requires a system proxy to be defined but some configurations are missing or not well defined: {}. Ignoring proxy",
+                                e.getMessage()
+                            );
                         }
                     }
 
-                    PoolOptions poolOptions = new PoolOptions().setHttp1MaxSize(
-                        configuration.getHttpOptions().getMaxConcurrentConnections()
-                    );
+                    PoolOptions poolOptions = CalloutHttpClientOptionsUtils.buildPoolOptions(configuration.getHttpOptions());
 
-                    var vertx = ctx.getComponent(Vertx.class);
-                    this.httpClient = vertx.createHttpClient(options, poolOptions);
+                    var vertx = calloutCtx.vertx();
+                    this.httpClientLease = CalloutHttpClientRegistry.shared()
+                        .acquire(
+                            this,
+                            vertx,
+                            options,
+                            poolOptions,
+                            () -> vertx.createHttpClient(options, poolOptions),
+                            httpClient -> httpClient.rxClose().onErrorComplete().subscribe()
+                        );
                 }
             }
         }
-        return this.httpClient;
+        return this.httpClientLease.client();
     }
 }
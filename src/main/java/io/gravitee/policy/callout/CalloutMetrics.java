@@ -0,0 +1,326 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.gravitee.gateway.reactive.api.context.ContextAttributes;
+import io.gravitee.gateway.reactive.api.context.base.BaseExecutionContext;
+import io.gravitee.policy.callout.spool.CalloutSpool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Callout metrics, registered in the metrics registry of the node and tagged by API and target host.
+ * Nothing is recorded when the node metrics are disabled.
+ *
+ * @author GraviteeSource Team
+ */
+class CalloutMetrics {
+
+    static final String DURATION = "gravitee_callout_duration";
+    static final String CONNECTION_WAIT = "gravitee_callout_connection_wait";
+    static final String RESPONSE_SIZE = "gravitee_callout_response_size";
+    static final String INTERRUPTIONS = "gravitee_callout_interruptions";
+    static final String IN_FLIGHT = "gravitee_callout_in_flight";
+    static final String FIRE_AND_FORGET_IN_FLIGHT = "gravitee_callout_fire_and_forget_in_flight";
+    static final String FIRE_AND_FORGET_QUEUED = "gravitee_callout_fire_and_forget_queued";
+    static final String FIRE_AND_FORGET_DROPPED = "gravitee_callout_fire_and_forget_dropped";
+    static final String SPOOL_PENDING = "gravitee_callout_spool_pending";
+    static final String SPOOL_DROPPED = "gravitee_callout_spool_dropped";
+    static final String HTTP_CLIENTS = "gravitee_callout_http_clients";
+
+    private static final String UNKNOWN = "unknown";
+    private static final String OTHER = "other";
+
+    /**
+     * Maximum number of distinct target hosts per policy instance, beyond which callouts are recorded with the <code>other</code>
+     * target, as targets may be built from the request.
+     */
+    static final int MAX_TARGETS = 100;
+
+    private static final Map<GaugesKey, ApiGauges> API_GAUGES = new ConcurrentHashMap<>();
+
+    private final MeterRegistry registry;
+    private final boolean histograms;
+    private final Map<TargetKey, TargetMeters> targets = new ConcurrentHashMap<>();
+    private final Map<InterruptionKey, Counter> interruptions = new ConcurrentHashMap<>();
+    private final AtomicBoolean gaugesRegistered = new AtomicBoolean();
+    private volatile GaugesKey gaugesKey;
+    private volatile CalloutHttpPolicy policy;
+
+    CalloutMetrics(MeterRegistry registry, boolean histograms) {
+        this.registry = registry;
+        this.histograms = histograms;
+    }
+
+    /**
+     * @param histograms whether to publish the percentile histograms of the timers
+     */
+    static CalloutMetrics create(boolean histograms) {
+        return new CalloutMetrics(BackendRegistries.getDefaultNow(), histograms);
+    }
+
+    /**
+     * Record a callout, retries and hedged attempts included, completed with a response.
+     */
+    void recordResponse(String api, RequestOptions requestOpts, long durationNanos, int status) {
+        if (registry != null) {
+            meters(api, requestOpts).response(status).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Record a callout which failed without response.
+     */
+    void recordFailure(String api, RequestOptions requestOpts, long durationNanos, Throwable throwable) {
+        if (registry != null) {
+            Throwable cause = throwable instanceof CalloutException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            meters(api, requestOpts).failure(cause.getClass()).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Record the time spent to obtain a connection from the pool, including connecting when a new connection is needed.
+     */
+    void recordConnectionWait(String api, RequestOptions requestOpts, long durationNanos) {
+        if (registry != null) {
+            meters(api, requestOpts).connectionWait.record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void recordResponseSize(String api, RequestOptions requestOpts, long bytes) {
+        if (registry != null) {
+            meters(api, requestOpts).responseSize.record(bytes);
+        }
+    }
+
+    /**
+     * Record an execution interrupted by the callout, because of the error condition or of a failed callout, when exit on error is set.
+     */
+    void recordInterruption(String api, String reason) {
+        if (registry != null) {
+            interruptions
+                .computeIfAbsent(new InterruptionKey(api, reason), key ->
+                    Counter.builder(INTERRUPTIONS).tags(Tags.of("api", key.api(), "reason", key.reason())).register(registry)
+                )
+                .increment();
+        }
+    }
+
+    /**
+     * Add the policy instance, once, to the gauges of the API of its first execution. The gauges sum the values of all the policy
+     * instances of the API, so that their time series are kept when the API is redeployed.
+     */
+    void registerGauges(String api, CalloutHttpPolicy policy) {
+        if (registry == null || !gaugesRegistered.compareAndSet(false, true)) {
+            return;
+        }
+        // Node-wide, registered once whatever the number of policy instances.
+        Gauge.builder(HTTP_CLIENTS, CalloutHttpClientRegistry.shared(), CalloutHttpClientRegistry::openClients).register(registry);
+        GaugesKey key = new GaugesKey(registry, api);
+        API_GAUGES.compute(key, (k, apiGauges) -> {
+            ApiGauges gauges = apiGauges != null ? apiGauges : new ApiGauges(registry, Tags.of("api", k.api()));
+            gauges.add(policy);
+            return gauges;
+        });
+        this.gaugesKey = key;
+        this.policy = policy;
+    }
+
+    /**
+     * Remove the policy instance from the gauges of its API, which are removed with the last policy instance of the API. The other
+     * meters of the policy instance, shared with the other instances of the API, are removed from the registry along with them.
+     */
+    void close() {
+        GaugesKey key = gaugesKey;
+        if (key != null) {
+            API_GAUGES.computeIfPresent(key, (k, apiGauges) -> apiGauges.remove(policy) ? null : apiGauges);
+        }
+        if (registry == null) {
+            return;
+        }
+        Map<String, List<Meter>> meters = new HashMap<>();
+        targets.forEach((k, targetMeters) -> meters.computeIfAbsent(k.api(), api -> new ArrayList<>()).addAll(targetMeters.meters()));
+        interruptions.forEach((k, counter) -> meters.computeIfAbsent(k.api(), api -> new ArrayList<>()).add(counter));
+        meters.forEach((api, apiMeters) ->
+            API_GAUGES.compute(new GaugesKey(registry, api), (k, apiGauges) -> {
+                if (apiGauges == null) {
+                    apiMeters.forEach(registry::remove);
+                    return null;
+                }
+                apiGauges.keep(apiMeters);
+                return apiGauges;
+            })
+        );
+    }
+
+    private TargetMeters meters(String api, RequestOptions requestOpts) {
+        String target = requestOpts.getHost() == null ? UNKNOWN : requestOpts.getHost();
+        TargetMeters meters = targets.get(new TargetKey(api, target));
+        if (meters != null) {
+            return meters;
+        }
+        TargetKey key = new TargetKey(api, targets.size() < MAX_TARGETS ? target : OTHER);
+        return targets.computeIfAbsent(key, k -> new TargetMeters(Tags.of("api", k.api(), "target", k.target())));
+    }
+
+    /**
+     * @return the API of the execution, which the metrics are tagged with
+     */
+    static String api(BaseExecutionContext ctx) {
+        Object api = ctx.getAttribute(ContextAttributes.ATTR_API);
+        return api == null ? UNKNOWN : api.toString();
+    }
+
+    private record TargetKey(String api, String target) {}
+
+    private record InterruptionKey(String api, String reason) {}
+
+    /**
+     * Meters of an API and target host, registered once rather than looked up in the registry on every callout.
+     */
+    private final class TargetMeters {
+
+        private final Tags tags;
+        private final Timer connectionWait;
+        private final DistributionSummary responseSize;
+        private final Map<Integer, Timer> responses = new ConcurrentHashMap<>();
+        private final Map<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+
+        private TargetMeters(Tags tags) {
+            this.tags = tags;
+            this.connectionWait = timer(CONNECTION_WAIT, tags);
+            this.responseSize = DistributionSummary.builder(RESPONSE_SIZE).baseUnit("bytes").tags(tags).register(registry);
+        }
+
+        Timer response(int status) {
+            return responses.computeIfAbsent(status / 100, statusClass ->
+                timer(DURATION, tags.and("outcome", statusClass + "xx", "exception", "none"))
+            );
+        }
+
+        Timer failure(Class<?> cause) {
+            return failures.computeIfAbsent(cause, type ->
+                timer(DURATION, tags.and("outcome", "error", "exception", type.getSimpleName()))
+            );
+        }
+
+        List<Meter> meters() {
+            List<Meter> meters = new ArrayList<>(List.of(connectionWait, responseSize));
+            meters.addAll(responses.values());
+            meters.addAll(failures.values());
+            return meters;
+        }
+
+        private Timer timer(String name, Tags tags) {
+            return Timer.builder(name).tags(tags).publishPercentileHistogram(histograms).register(registry);
+        }
+    }
+
+    private record GaugesKey(MeterRegistry registry, String api) {}
+
+    /**
+     * Gauges of an API, summing the values of its policy instances. Policy instances are weakly referenced, so that a policy which
+     * is not closed does not leak. The meters of the closed policy instances are kept until the last one is closed.
+     */
+    private static final class ApiGauges {
+
+        private final MeterRegistry registry;
+        private final Tags tags;
+        private final Set<CalloutHttpPolicy> policies = Collections.newSetFromMap(new WeakHashMap<>());
+        private final List<Meter> meters = new ArrayList<>();
+        private boolean fireAndForgetRegistered;
+        private boolean spoolRegistered;
+
+        private ApiGauges(MeterRegistry registry, Tags tags) {
+            this.registry = registry;
+            this.tags = tags;
+            meters.add(gauge(IN_FLIGHT, gauges -> gauges.sum(CalloutHttpPolicy::inFlight)));
+        }
+
+        synchronized void add(CalloutHttpPolicy policy) {
+            policies.add(policy);
+            if (policy.fireAndForgetDispatcher() != null && !fireAndForgetRegistered) {
+                fireAndForgetRegistered = true;
+                meters.add(gauge(FIRE_AND_FORGET_IN_FLIGHT, gauges -> gauges.sumDispatchers(FireAndForgetDispatcher::inFlight)));
+                meters.add(gauge(FIRE_AND_FORGET_QUEUED, gauges -> gauges.sumDispatchers(FireAndForgetDispatcher::queued)));
+                meters.add(counter(FIRE_AND_FORGET_DROPPED, gauges -> gauges.sumDispatchers(FireAndForgetDispatcher::dropped)));
+            }
+            if (policy.spool() != null && !spoolRegistered) {
+                spoolRegistered = true;
+                meters.add(gauge(SPOOL_PENDING, gauges -> gauges.sumSpools(CalloutSpool::pending)));
+                meters.add(counter(SPOOL_DROPPED, gauges -> gauges.sumSpools(CalloutSpool::dropped)));
+            }
+        }
+
+        synchronized void keep(List<Meter> closed) {
+            meters.addAll(closed);
+        }
+
+        /**
+         * @return <code>true</code> if it was the last policy instance of the API, the gauges and kept meters being then removed
+         */
+        synchronized boolean remove(CalloutHttpPolicy policy) {
+            policies.remove(policy);
+            if (!policies.isEmpty()) {
+                return false;
+            }
+            meters.forEach(registry::remove);
+            meters.clear();
+            return true;
+        }
+
+        private synchronized double sum(ToDoubleFunction<CalloutHttpPolicy> value) {
+            return policies.stream().mapToDouble(value).sum();
+        }
+
+        private synchronized double sumDispatchers(ToDoubleFunction<FireAndForgetDispatcher> value) {
+            return policies.stream().map(CalloutHttpPolicy::fireAndForgetDispatcher).filter(Objects::nonNull).mapToDouble(value).sum();
+        }
+
+        private synchronized double sumSpools(ToDoubleFunction<CalloutSpool> value) {
+            // A spool may be shared by several policy instances.
+            return policies.stream().map(CalloutHttpPolicy::spool).filter(Objects::nonNull).distinct().mapToDouble(value).sum();
+        }
+
+        private Meter gauge(String name, ToDoubleFunction<ApiGauges> value) {
+            return Gauge.builder(name, this, value).tags(tags).strongReference(true).register(registry);
+        }
+
+        private Meter counter(String name, ToDoubleFunction<ApiGauges> value) {
+            return FunctionCounter.builder(name, this, value).tags(tags).register(registry);
+        }
+    }
+}
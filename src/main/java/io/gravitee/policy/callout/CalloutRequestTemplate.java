@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
+import io.gravitee.policy.callout.configuration.HttpHeader;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The callout request as configured, with each value classified once for all when the policy is created: literal values are used
+ * as is and only the ones holding an EL expression are evaluated for each callout.
+ *
+ * @param literalRequest the request to send when neither the URL, the body nor the headers hold an EL expression,
+ * <code>null</code> otherwise
+ * @author GraviteeSource Team
+ */
+record CalloutRequestTemplate(
+    String url,
+    boolean literalUrl,
+    String body,
+    boolean literalBody,
+    List<HttpHeader> headers,
+    boolean literalHeaders,
+    CalloutHttpPolicy.Req literalRequest
+) {
+    static CalloutRequestTemplate of(CalloutHttpPolicyConfiguration configuration) {
+        String url = configuration.getUrl();
+        String body = configuration.getBody();
+        List<HttpHeader> headers = configuration.getHeaders() == null
+            ? List.of()
+            : configuration.getHeaders().stream().filter(header -> header.getValue() != null).toList();
+
+        boolean literalUrl = isLiteral(url);
+        boolean literalBody = isLiteral(body);
+        boolean literalHeaders = headers.stream().allMatch(header -> isLiteral(header.getValue()));
+        CalloutHttpPolicy.Req literalRequest = literalUrl && literalBody && literalHeaders
+            ? new CalloutHttpPolicy.Req(url, Optional.ofNullable(body), headers)
+            : null;
+        return new CalloutRequestTemplate(url, literalUrl, body, literalBody, headers, literalHeaders, literalRequest);
+    }
+
+    /**
+     * @return <code>true</code> if the value does not hold any EL expression, which are always enclosed in curly braces
+     */
+    static boolean isLiteral(String value) {
+        return value == null || value.indexOf('{') < 0;
+    }
+}
@@ -16,39 +16,127 @@
 package io.gravitee.policy.callout;
 
 import io.gravitee.gateway.api.http.HttpHeaders;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
+ * The callout response exposed to EL as <code>calloutResponse</code>.
+ *
+ * <p>When built from an HTTP response, the body is kept as a raw buffer and the headers as the Vert.x view of the response headers:
+ * they are only decoded and copied the first time an expression reads them.</p>
+ *
+ * <p>The JSON content is parsed once, on first access to <code>calloutResponse.json</code>, and shared by all the expressions
+ * evaluated for the callout. As a cached or coalesced response is shared by several executions, the parsed content is read-only.</p>
+ *
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author GraviteeSource Team
  */
 public class CalloutResponse {
 
-    private final HttpClientResponse response;
-    private final String content;
-    private final HttpHeaders headers;
+    private static final Object NOT_PARSED = new Object();
+
+    private final int status;
+    private final Buffer body;
+    private final MultiMap rawHeaders;
+    private volatile String content;
+    private volatile HttpHeaders headers;
+    private volatile Object json = NOT_PARSED;
 
     public CalloutResponse(final HttpClientResponse response) {
-        this(response, null);
+        this(response, (String) null);
     }
 
     public CalloutResponse(final HttpClientResponse response, final String content) {
-        this.response = response;
-        this.content = content;
-        this.headers = HttpHeaders.create();
+        this(response.statusCode(), null, content);
+        this.headers = copy(response.headers());
+    }
+
+    public CalloutResponse(final HttpClientResponse response, final Buffer body) {
+        this.status = response.statusCode();
+        this.body = body;
+        this.rawHeaders = response.headers();
+    }
 
-        response.headers().forEach(header -> this.headers.add(header.getKey(), header.getValue()));
+    public CalloutResponse(final int status, final HttpHeaders headers, final String content) {
+        this.status = status;
+        this.headers = headers;
+        this.content = content;
+        this.body = null;
+        this.rawHeaders = null;
     }
 
     public int getStatus() {
-        return response.statusCode();
+        return status;
     }
 
     public HttpHeaders getHeaders() {
+        if (headers == null && rawHeaders != null) {
+            headers = copy(rawHeaders);
+        }
         return headers;
     }
 
     public String getContent() {
+        if (content == null && body != null) {
+            content = body.toString();
+        }
         return content;
     }
+
+    /**
+     * @return the content parsed as JSON, as an unmodifiable {@link Map} for an object and an unmodifiable {@link List} for an array,
+     * or <code>null</code> if the content is not valid JSON
+     */
+    public Object getJson() {
+        Object parsed = json;
+        if (parsed == NOT_PARSED) {
+            parsed = parseJson(getContent());
+            json = parsed;
+        }
+        return parsed;
+    }
+
+    private static Object parseJson(String content) {
+        if (content == null || content.isBlank()) {
+            return null;
+        }
+        try {
+            return readOnly(Json.decodeValue(content));
+        } catch (DecodeException e) {
+            return null;
+        }
+    }
+
+    private static Object readOnly(Object value) {
+        if (value instanceof JsonObject jsonObject) {
+            return readOnly(jsonObject.getMap());
+        } else if (value instanceof JsonArray jsonArray) {
+            return readOnly(jsonArray.getList());
+        } else if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>(map.size());
+            map.forEach((key, entry) -> copy.put(key, readOnly(entry)));
+            return Collections.unmodifiableMap(copy);
+        } else if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(element -> copy.add(readOnly(element)));
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static HttpHeaders copy(MultiMap multiMap) {
+        HttpHeaders httpHeaders = HttpHeaders.create();
+        multiMap.forEach(header -> httpHeaders.add(header.getKey(), header.getValue()));
+        return httpHeaders;
+    }
 }
@@ -20,6 +20,11 @@ import io.vertx.core.http.HttpClientResponse;
 /**
  * Wrapper class to hold both CalloutResponse and HttpClientResponse for tracing purposes.
  *
+ * @param timings the phases of the HTTP exchange, <code>null</code> when the response is served from the cache
  * @author GraviteeSource Team
  */
-public record CalloutResponseWithDelegate(CalloutResponse calloutResponse, HttpClientResponse httpClientResponse) {}
+public record CalloutResponseWithDelegate(CalloutResponse calloutResponse, HttpClientResponse httpClientResponse, CalloutTimings timings) {
+    public CalloutResponseWithDelegate(CalloutResponse calloutResponse, HttpClientResponse httpClientResponse) {
+        this(calloutResponse, httpClientResponse, null);
+    }
+}
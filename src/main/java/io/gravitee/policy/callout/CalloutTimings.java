@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.gravitee.node.api.opentelemetry.Span;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Timestamps of the phases of a callout attempt, added to its span so that a slow callout can be broken down.
+ *
+ * <p>The Vert.x client does not report DNS resolution, TCP connect and TLS handshake on their own: they are part of the
+ * connection acquisition, along with the wait for a pooled connection, when a new connection has to be opened.</p>
+ *
+ * @author GraviteeSource Team
+ */
+public class CalloutTimings {
+
+    static final String CONNECTION_ACQUIRE = "callout.timing.connection_acquire_ms";
+    static final String TIME_TO_FIRST_BYTE = "callout.timing.time_to_first_byte_ms";
+    static final String BODY_DOWNLOAD = "callout.timing.body_download_ms";
+    static final String EL_PROCESSING = "callout.timing.el_processing_ms";
+    static final String REQUEST_BODY_SIZE = "http.request.body.size";
+    static final String RESPONSE_BODY_SIZE = "http.response.body.size";
+
+    private final LongSupplier clock;
+    private final long start;
+    private long connectionAcquired;
+    private long responseReceived;
+    private long bodyRead;
+    private long requestBytes;
+    private long responseBytes;
+
+    CalloutTimings() {
+        this(System::nanoTime);
+    }
+
+    CalloutTimings(LongSupplier clock) {
+        this.clock = clock;
+        this.start = clock.getAsLong();
+    }
+
+    void connectionAcquired() {
+        connectionAcquired = clock.getAsLong();
+    }
+
+    void requestSent(long bytes) {
+        requestBytes = bytes;
+    }
+
+    void responseReceived() {
+        responseReceived = clock.getAsLong();
+    }
+
+    void bodyRead(long bytes) {
+        bodyRead = clock.getAsLong();
+        responseBytes = bytes;
+    }
+
+    /**
+     * Add the duration of the phases reached by the attempt, and the body sizes, to the span.
+     */
+    void applyTo(Span span) {
+        if (span == null || connectionAcquired == 0) {
+            return;
+        }
+        span.withAttribute(CONNECTION_ACQUIRE, millis(connectionAcquired - start));
+        span.withAttribute(REQUEST_BODY_SIZE, String.valueOf(requestBytes));
+        if (responseReceived != 0) {
+            span.withAttribute(TIME_TO_FIRST_BYTE, millis(responseReceived - connectionAcquired));
+        }
+        if (bodyRead != 0) {
+            span.withAttribute(BODY_DOWNLOAD, millis(bodyRead - responseReceived));
+            span.withAttribute(RESPONSE_BODY_SIZE, String.valueOf(responseBytes));
+        }
+    }
+
+    /**
+     * Add the time spent evaluating the error condition and the variables of the callout response to the span.
+     */
+    static void applyElProcessing(Span span, long processingStart) {
+        if (span != null) {
+            span.withAttribute(EL_PROCESSING, millis(System.nanoTime() - processingStart));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000d);
+    }
+}
@@ -17,12 +17,35 @@ package io.gravitee.policy.callout;
 
 import static java.util.stream.Collectors.toList;
 
+import io.gravitee.common.http.MediaType;
 import io.gravitee.el.TemplateEngine;
-import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
+import io.gravitee.gateway.reactive.api.message.kafka.KafkaMessage;
+import io.gravitee.policy.callout.configuration.BatchFormat;
 import io.gravitee.policy.callout.configuration.HttpHeader;
+import io.gravitee.policy.callout.configuration.RequestCompression;
+import io.gravitee.policy.callout.configuration.RetryOptions;
+import io.netty.buffer.ByteBuf;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.internal.buffer.BufferInternal;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 import lombok.CustomLog;
 import lombok.experimental.UtilityClass;
 
@@ -34,27 +57,281 @@ import lombok.experimental.UtilityClass;
 @CustomLog
 public class CalloutUtils {
 
-    Single<CalloutHttpPolicy.Req> prepareCalloutRequest(TemplateEngine templateEngine, CalloutHttpPolicyConfiguration configuration) {
-        var url = templateEngine.eval(configuration.getUrl(), String.class).switchIfEmpty(Single.just(configuration.getUrl()));
-        var body = configuration.getBody() != null
-            ? templateEngine
-                .eval(configuration.getBody(), String.class)
+    private static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * Evaluate the callout request. Literal values are not evaluated, and a fully literal request is returned as is.
+     */
+    Single<CalloutHttpPolicy.Req> prepareCalloutRequest(TemplateEngine templateEngine, CalloutRequestTemplate template) {
+        if (template.literalRequest() != null) {
+            return Single.just(template.literalRequest());
+        }
+
+        var url = template.literalUrl()
+            ? Single.just(template.url())
+            : templateEngine.eval(template.url(), String.class).switchIfEmpty(Single.just(template.url()));
+        Single<Optional<String>> body;
+        if (template.body() == null) {
+            body = Single.just(Optional.empty());
+        } else if (template.literalBody()) {
+            body = Single.just(Optional.of(template.body()));
+        } else {
+            body = templateEngine
+                .eval(template.body(), String.class)
                 .map(Optional::of)
-                .switchIfEmpty(Single.just(Optional.ofNullable(configuration.getBody())))
-            : Single.just(Optional.<String>empty());
-        var headers = Flowable.fromIterable(configuration.getHeaders())
-            .flatMap(header -> {
-                if (header.getValue() != null) {
+                .switchIfEmpty(Single.just(Optional.of(template.body())));
+        }
+        var headers = template.literalHeaders()
+            ? Single.just(template.headers())
+            : Flowable.fromIterable(template.headers())
+                .concatMapSingle(header -> {
+                    if (CalloutRequestTemplate.isLiteral(header.getValue())) {
+                        return Single.just(header);
+                    }
                     return templateEngine
                         .eval(header.getValue(), String.class)
                         .map(value -> new HttpHeader(header.getName(), value))
-                        .switchIfEmpty(Single.just(header))
-                        .toFlowable();
-                }
-                return Flowable.empty();
-            })
-            .collect(toList());
+                        .switchIfEmpty(Single.just(header));
+                })
+                .collect(toList());
 
         return Single.zip(url, body, headers, CalloutHttpPolicy.Req::new);
     }
+
+    /**
+     * @return a Vert.x view of the incoming body, sharing its memory when it wraps a Vert.x or Netty buffer, or a copy of its bytes
+     */
+    Buffer toVertxBuffer(io.gravitee.gateway.api.buffer.Buffer body) {
+        Object nativeBuffer = body.getNativeBuffer();
+        if (nativeBuffer instanceof Buffer buffer) {
+            return buffer;
+        } else if (nativeBuffer instanceof ByteBuf byteBuf) {
+            // Vert.x 5 no longer exposes a public factory wrapping a Netty buffer without copying it, see CalloutUtilsTest.
+            return BufferInternal.buffer(byteBuf);
+        }
+        return Buffer.buffer(body.getBytes());
+    }
+
+    /**
+     * @return <code>true</code> when the method can be sent again without side effects, as defined by RFC 9110
+     */
+    boolean isIdempotent(HttpMethod method) {
+        return (
+            method == HttpMethod.GET ||
+            method == HttpMethod.HEAD ||
+            method == HttpMethod.OPTIONS ||
+            method == HttpMethod.PUT ||
+            method == HttpMethod.DELETE ||
+            method == HttpMethod.TRACE
+        );
+    }
+
+    /**
+     * @return the delay before the given retry, growing exponentially from the initial backoff up to the maximum backoff
+     */
+    long retryBackoff(RetryOptions retry, int retries) {
+        double backoff = Math.min(retry.getMaxBackoffMs(), retry.getInitialBackoffMs() * Math.pow(retry.getBackoffMultiplier(), retries));
+        if (retry.isJitter() && backoff > 0) {
+            backoff = backoff / 2 + ThreadLocalRandom.current().nextDouble(backoff / 2);
+        }
+        return (long) backoff;
+    }
+
+    /**
+     * @return the length announced by a <code>Content-Length</code> header, or <code>-1</code> when it is missing or malformed, in which
+     * case the body size is only checked while reading it
+     */
+    long contentLength(String contentLength) {
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Compress the body of a callout request with the given encoding.
+     *
+     * @return the compressed body, or the body as is when its size is below the threshold or compression is disabled
+     */
+    Buffer compress(Buffer body, RequestCompression compression, int threshold) {
+        if (compression == null || compression == RequestCompression.NONE || body.length() < threshold) {
+            return body;
+        }
+        var compressed = new ByteArrayOutputStream(body.length() / 2);
+        try (
+            OutputStream out = compression == RequestCompression.GZIP
+                ? new GZIPOutputStream(compressed)
+                : new DeflaterOutputStream(compressed)
+        ) {
+            out.write(body.getBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Buffer.buffer(compressed.toByteArray());
+    }
+
+    /**
+     * Split a batch of messages so that the cumulated size of the message contents of each batch does not exceed the given size.
+     * A message bigger than the maximum size is sent alone.
+     */
+    List<List<KafkaMessage>> splitBatch(List<KafkaMessage> messages, long maxBytes) {
+        List<List<KafkaMessage>> batches = new ArrayList<>();
+        List<KafkaMessage> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (KafkaMessage message : messages) {
+            long size = message.content() == null ? 0 : message.content().length();
+            if (!current.isEmpty() && currentBytes + size > maxBytes) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(message);
+            currentBytes += size;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Build the request of a batch callout from the requests evaluated for each message.
+     * URL and headers are taken from the first message while the body is a JSON array of the evaluated bodies,
+     * or of the message contents when no body is configured.
+     */
+    CalloutHttpPolicy.Req prepareBatchCalloutRequest(List<CalloutHttpPolicy.Req> requests, List<KafkaMessage> messages) {
+        JsonArray body = new JsonArray();
+        for (int i = 0; i < requests.size(); i++) {
+            KafkaMessage message = messages.get(i);
+            body.add(
+                toJsonValue(requests.get(i).body().orElseGet(() -> message.content() == null ? null : message.content().toString()))
+            );
+        }
+
+        CalloutHttpPolicy.Req first = requests.get(0);
+        List<HttpHeader> headers = new ArrayList<>(first.headerList());
+        if (headers.stream().noneMatch(header -> HttpHeaders.CONTENT_TYPE.toString().equalsIgnoreCase(header.getName()))) {
+            headers.add(new HttpHeader(HttpHeaders.CONTENT_TYPE.toString(), MediaType.APPLICATION_JSON));
+        }
+        return new CalloutHttpPolicy.Req(first.url(), Optional.of(body.encode()), headers);
+    }
+
+    /**
+     * Build the request of a batch of fire and forget callouts sharing the same URL and headers.
+     * The body combines the bodies of the callouts, each one as a JSON value when it is valid JSON and as a JSON string otherwise.
+     */
+    CalloutHttpPolicy.Req prepareFireAndForgetBatchRequest(List<CalloutHttpPolicy.Req> requests, BatchFormat format) {
+        Buffer body = Buffer.buffer();
+        JsonArray array = new JsonArray();
+        for (CalloutHttpPolicy.Req request : requests) {
+            Object value = toJsonValue(request.rawBody() != null ? request.rawBody().toString() : request.body().orElse(null));
+            if (format == BatchFormat.JSON_ARRAY) {
+                array.add(value);
+            } else {
+                body.appendString(Json.encode(value)).appendString("\n");
+            }
+        }
+        if (format == BatchFormat.JSON_ARRAY) {
+            body = array.toBuffer();
+        }
+
+        CalloutHttpPolicy.Req first = requests.get(0);
+        List<HttpHeader> headers = new ArrayList<>(first.headerList());
+        if (headers.stream().noneMatch(header -> HttpHeaders.CONTENT_TYPE.toString().equalsIgnoreCase(header.getName()))) {
+            headers.add(
+                new HttpHeader(HttpHeaders.CONTENT_TYPE.toString(), format == BatchFormat.JSON_ARRAY ? MediaType.APPLICATION_JSON : NDJSON)
+            );
+        }
+        return new CalloutHttpPolicy.Req(first.url(), Optional.empty(), headers, body);
+    }
+
+    /**
+     * Serialize a callout request to be written to the spool.
+     */
+    byte[] toSpoolRecord(HttpMethod method, CalloutHttpPolicy.Req request) {
+        JsonArray headers = new JsonArray();
+        request.headerList().forEach(header -> headers.add(new JsonObject().put("name", header.getName()).put("value", header.getValue())));
+        JsonObject record = new JsonObject()
+            .put("method", method == null ? null : method.name())
+            .put("url", request.url())
+            .put("headers", headers);
+        if (request.rawBody() != null) {
+            record.put("body", request.rawBody().getBytes());
+        } else {
+            request.body().ifPresent(body -> record.put("body", body.getBytes(StandardCharsets.UTF_8)));
+        }
+        return record.toBuffer().getBytes();
+    }
+
+    /**
+     * @throws DecodeException if the record is not a serialized callout request
+     */
+    SpooledCallout fromSpoolRecord(byte[] payload) {
+        JsonObject record = Buffer.buffer(payload).toJsonObject();
+        List<HttpHeader> headers = new ArrayList<>();
+        record
+            .getJsonArray("headers", new JsonArray())
+            .forEach(header -> {
+                JsonObject json = (JsonObject) header;
+                headers.add(new HttpHeader(json.getString("name"), json.getString("value")));
+            });
+        byte[] body = record.getBinary("body");
+        String method = record.getString("method");
+        return new SpooledCallout(
+            method == null ? null : HttpMethod.valueOf(method),
+            new CalloutHttpPolicy.Req(record.getString("url"), Optional.empty(), headers, body == null ? null : Buffer.buffer(body))
+        );
+    }
+
+    /**
+     * @param method the method of the callout, <code>null</code> for records spooled without it
+     */
+    record SpooledCallout(HttpMethod method, CalloutHttpPolicy.Req request) {}
+
+    /**
+     * Split the response of a batch callout into one response per message.
+     * A successful response must be a JSON array holding one element per message, any other response is given as is to every message
+     * so that the error condition can be evaluated.
+     */
+    List<CalloutResponse> splitBatchResponse(CalloutResponse response, int size) {
+        List<CalloutResponse> responses = new ArrayList<>(size);
+        if (response.getStatus() < 200 || response.getStatus() >= 300) {
+            for (int i = 0; i < size; i++) {
+                responses.add(response);
+            }
+            return responses;
+        }
+
+        Object content;
+        try {
+            content = response.getContent() == null ? null : Json.decodeValue(response.getContent());
+        } catch (DecodeException e) {
+            throw new CalloutException(e);
+        }
+        if (!(content instanceof JsonArray array) || array.size() != size) {
+            throw new CalloutException(new IllegalStateException("Batch callout response must be a JSON array of " + size + " elements"));
+        }
+
+        for (int i = 0; i < size; i++) {
+            Object element = array.getValue(i);
+            String elementContent = element == null || element instanceof String ? (String) element : Json.encode(element);
+            responses.add(new CalloutResponse(response.getStatus(), response.getHeaders(), elementContent));
+        }
+        return responses;
+    }
+
+    private Object toJsonValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Json.decodeValue(value);
+        } catch (DecodeException e) {
+            return value;
+        }
+    }
 }
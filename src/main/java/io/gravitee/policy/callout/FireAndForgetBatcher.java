@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.gravitee.policy.callout.configuration.FireAndForgetOptions;
+import io.gravitee.policy.callout.configuration.HttpHeader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Group fire and forget callouts sharing the same URL and headers into batches, bounded by a maximum count and size.
+ *
+ * <p>Flushing a batch after the linger time is left to the caller, notified when a batch is opened.</p>
+ *
+ * @author GraviteeSource Team
+ */
+class FireAndForgetBatcher {
+
+    private final int maxCount;
+    private final long maxBytes;
+
+    private final Map<Key, Batch> batches = new HashMap<>();
+
+    FireAndForgetBatcher(FireAndForgetOptions options) {
+        this.maxCount = Math.max(1, options.getBatchMaxCount());
+        this.maxBytes = Math.max(1, options.getBatchMaxBytes());
+    }
+
+    /**
+     * Add a request to the batch of its URL and headers.
+     *
+     * @param onOpen called with each batch opened by the request, to flush it after the linger time
+     * @return the batches to flush because they are full, if any
+     */
+    synchronized List<Batch> add(CalloutHttpPolicy.Req request, Consumer<Batch> onOpen) {
+        List<Batch> full = new ArrayList<>(2);
+        Key key = Key.of(request);
+        long size = size(request);
+
+        Batch batch = batches.get(key);
+        if (batch != null && batch.bytes + size > maxBytes) {
+            batches.remove(key);
+            full.add(batch);
+            batch = null;
+        }
+        if (batch == null) {
+            batch = new Batch();
+            batches.put(key, batch);
+            onOpen.accept(batch);
+        }
+        batch.requests.add(request);
+        batch.bytes += size;
+        if (batch.requests.size() >= maxCount || batch.bytes >= maxBytes) {
+            batches.remove(key);
+            full.add(batch);
+        }
+        return full;
+    }
+
+    /**
+     * @return <code>true</code> if the batch was still pending, in which case it is now up to the caller to flush it
+     */
+    synchronized boolean remove(Batch batch) {
+        return batches.values().remove(batch);
+    }
+
+    synchronized List<Batch> removeAll() {
+        List<Batch> pending = new ArrayList<>(batches.values());
+        batches.clear();
+        return pending;
+    }
+
+    private static long size(CalloutHttpPolicy.Req request) {
+        if (request.rawBody() != null) {
+            return request.rawBody().length();
+        }
+        return request.body().map(String::length).orElse(0);
+    }
+
+    static final class Batch {
+
+        private final List<CalloutHttpPolicy.Req> requests = new ArrayList<>();
+        private long bytes;
+
+        List<CalloutHttpPolicy.Req> requests() {
+            return requests;
+        }
+    }
+
+    /**
+     * Header values are part of the key, as {@link HttpHeader} equality only relies on names.
+     */
+    private record Key(String url, List<String> headers) {
+        static Key of(CalloutHttpPolicy.Req request) {
+            return new Key(request.url(), request.headerList().stream().map(header -> header.getName() + ":" + header.getValue()).toList());
+        }
+    }
+}
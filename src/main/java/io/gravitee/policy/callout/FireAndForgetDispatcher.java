@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.gravitee.policy.callout.configuration.FireAndForgetOptions;
+import io.gravitee.policy.callout.configuration.FireAndForgetOverflow;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.CompletableEmitter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Run fire and forget callouts with a bounded number of them in flight, the others waiting in a bounded queue.
+ *
+ * <p>
+ * When the queue is full, the overflow policy either drops the oldest queued callout, drops the new one, or suspends the caller
+ * until the callout can be queued. The caller is never blocked on its thread: the {@link Completable} returned by
+ * {@link #dispatch(Supplier)} simply completes later.
+ * </p>
+ *
+ * @author GraviteeSource Team
+ */
+public class FireAndForgetDispatcher {
+
+    private final int maxInFlight;
+    private final int queueCapacity;
+    private final FireAndForgetOverflow overflow;
+
+    private final Deque<Task> queue = new ArrayDeque<>();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int inFlight;
+
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public FireAndForgetDispatcher(FireAndForgetOptions options) {
+        this.maxInFlight = Math.max(1, options.getMaxInFlight());
+        this.queueCapacity = Math.max(0, options.getQueueCapacity());
+        this.overflow = options.getOverflow() == null ? FireAndForgetOverflow.DROP_OLDEST : options.getOverflow();
+    }
+
+    /**
+     * @return a {@link Completable} completing once the callout is started or queued, or dropped
+     */
+    public Completable dispatch(Supplier<Completable> callout) {
+        return dispatch(callout, () -> {});
+    }
+
+    /**
+     * @param onDropped called when the callout is dropped by the overflow policy
+     * @return a {@link Completable} completing once the callout is started or queued, or dropped
+     */
+    public Completable dispatch(Supplier<Completable> callout, Runnable onDropped) {
+        return Completable.create(emitter -> {
+            Task task = new Task(callout, onDropped);
+            Task droppedTask = null;
+            synchronized (this) {
+                if (queue.size() < queueCapacity + Math.max(0, maxInFlight - inFlight)) {
+                    queue.add(task);
+                } else if (overflow == FireAndForgetOverflow.BLOCK) {
+                    Waiter waiter = new Waiter(task, emitter);
+                    waiters.add(waiter);
+                    emitter.setCancellable(() -> removeWaiter(waiter));
+                    return;
+                } else {
+                    dropped.incrementAndGet();
+                    droppedTask = task;
+                    if (overflow == FireAndForgetOverflow.DROP_OLDEST && queueCapacity > 0) {
+                        droppedTask = queue.poll();
+                        queue.add(task);
+                    }
+                }
+            }
+            if (droppedTask != null) {
+                droppedTask.onDropped().run();
+            }
+            emitter.onComplete();
+            drain();
+        });
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of callouts waiting to be started, including the ones of suspended callers
+     */
+    public synchronized int queued() {
+        return queue.size() + waiters.size();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (true) {
+                Task next;
+                Waiter waiter;
+                synchronized (this) {
+                    if (inFlight >= maxInFlight || (queue.isEmpty() && waiters.isEmpty())) {
+                        break;
+                    }
+                    next = queue.poll();
+                    waiter = waiters.poll();
+                    if (waiter != null) {
+                        if (next == null) {
+                            next = waiter.task();
+                        } else {
+                            queue.add(waiter.task());
+                        }
+                    }
+                    inFlight++;
+                }
+                if (waiter != null) {
+                    waiter.emitter().onComplete();
+                }
+                Completable.defer(next.callout()::get).onErrorComplete().doFinally(this::release).subscribe();
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    private synchronized void removeWaiter(Waiter waiter) {
+        waiters.remove(waiter);
+    }
+
+    private record Task(Supplier<Completable> callout, Runnable onDropped) {}
+
+    private record Waiter(Task task, CompletableEmitter emitter) {}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent callout latencies to estimate a percentile of them.
+ *
+ * <p>The percentile is only computed again once an eighth of the samples were renewed, so that it is not sorted on every callout.</p>
+ *
+ * @author GraviteeSource Team
+ */
+class LatencyTracker {
+
+    static final int MIN_SAMPLES = 20;
+
+    private final long[] samples;
+    private final int recomputeEvery;
+    private int next;
+    private int count;
+    private int recordedSinceComputation;
+    private int computedPercentile = -1;
+    private long computedLatency;
+
+    LatencyTracker(int size) {
+        this.samples = new long[Math.max(MIN_SAMPLES, size)];
+        this.recomputeEvery = Math.max(1, samples.length / 8);
+    }
+
+    synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        recordedSinceComputation++;
+    }
+
+    /**
+     * @return the given percentile of the recorded latencies, or the fallback value while too few latencies are recorded
+     */
+    synchronized long percentile(int percentile, long fallback) {
+        if (count < MIN_SAMPLES) {
+            return fallback;
+        }
+        if (percentile != computedPercentile || recordedSinceComputation >= recomputeEvery) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * count);
+            computedLatency = sorted[Math.min(count, Math.max(1, rank)) - 1];
+            computedPercentile = percentile;
+            recordedSinceComputation = 0;
+        }
+        return computedLatency;
+    }
+}
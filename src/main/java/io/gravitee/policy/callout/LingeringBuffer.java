@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.reactivex.rxjava3.core.FlowableOperator;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.reactivex.rxjava3.core.Scheduler;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Buffer items into lists of a maximum count, emitting a partial list once the linger time has elapsed since its first item.
+ *
+ * <p>Unlike the timed {@link io.reactivex.rxjava3.core.Flowable#buffer(long, TimeUnit, Scheduler, int)}, items are only requested
+ * from upstream while downstream requests lists, so that a slow consumer slows down the producer instead of failing with a
+ * {@link io.reactivex.rxjava3.exceptions.MissingBackpressureException}.</p>
+ *
+ * @author GraviteeSource Team
+ */
+class LingeringBuffer<T> implements FlowableOperator<List<T>, T> {
+
+    private final int maxCount;
+    private final long lingerMs;
+    private final Scheduler scheduler;
+
+    LingeringBuffer(int maxCount, long lingerMs, Scheduler scheduler) {
+        this.maxCount = Math.max(1, maxCount);
+        this.lingerMs = lingerMs;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Subscriber<? super T> apply(Subscriber<? super List<T>> downstream) {
+        return new BufferSubscriber<>(downstream, maxCount, lingerMs, scheduler.createWorker());
+    }
+
+    private static final class BufferSubscriber<T> implements FlowableSubscriber<T>, Subscription {
+
+        private final Subscriber<? super List<T>> downstream;
+        private final int maxCount;
+        private final long lingerMs;
+        private final Scheduler.Worker worker;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Subscription upstream;
+        // Guarded by this.
+        private List<T> buffer = new ArrayList<>();
+        private final Queue<List<T>> ready = new ArrayDeque<>();
+        private long requested;
+        private long outstanding;
+        private boolean done;
+        private Throwable error;
+        private boolean cancelled;
+
+        BufferSubscriber(Subscriber<? super List<T>> downstream, int maxCount, long lingerMs, Scheduler.Worker worker) {
+            this.downstream = downstream;
+            this.maxCount = maxCount;
+            this.lingerMs = lingerMs;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (done || cancelled) {
+                    return;
+                }
+                outstanding--;
+                buffer.add(item);
+                if (buffer.size() >= maxCount) {
+                    ready.add(buffer);
+                    buffer = new ArrayList<>();
+                } else if (buffer.size() == 1) {
+                    List<T> lingering = buffer;
+                    worker.schedule(() -> onLinger(lingering), lingerMs, TimeUnit.MILLISECONDS);
+                }
+            }
+            drain();
+        }
+
+        private void onLinger(List<T> lingering) {
+            synchronized (this) {
+                if (buffer != lingering || buffer.isEmpty()) {
+                    return;
+                }
+                ready.add(buffer);
+                buffer = new ArrayList<>();
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                error = throwable;
+                done = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (!buffer.isEmpty()) {
+                    ready.add(buffer);
+                    buffer = new ArrayList<>();
+                }
+                done = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+            }
+            worker.dispose();
+            upstream.cancel();
+        }
+
+        /**
+         * Emit the lists downstream requested, then request the items of the next list once there is no other list to emit.
+         * Signals are emitted outside the lock, by a single thread at a time.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (true) {
+                    List<T> next = null;
+                    Throwable failure = null;
+                    boolean complete = false;
+                    long toRequest = 0;
+                    synchronized (this) {
+                        if (cancelled) {
+                            ready.clear();
+                            return;
+                        }
+                        if (error != null) {
+                            failure = error;
+                            cancelled = true;
+                        } else if (requested > 0 && !ready.isEmpty()) {
+                            next = ready.poll();
+                            if (requested != Long.MAX_VALUE) {
+                                requested--;
+                            }
+                        } else if (done && ready.isEmpty()) {
+                            complete = true;
+                            cancelled = true;
+                        } else if (!done && requested > 0 && ready.isEmpty() && outstanding == 0) {
+                            toRequest = maxCount - buffer.size();
+                            outstanding = toRequest;
+                        }
+                    }
+                    if (failure != null) {
+                        worker.dispose();
+                        downstream.onError(failure);
+                        return;
+                    } else if (complete) {
+                        worker.dispose();
+                        downstream.onComplete();
+                        return;
+                    } else if (next != null) {
+                        downstream.onNext(next);
+                    } else {
+                        if (toRequest > 0) {
+                            upstream.request(toRequest);
+                        }
+                        break;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
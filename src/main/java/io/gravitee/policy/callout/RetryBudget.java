@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A budget bounding the additional attempts of callouts, retries or hedged attempts, to a ratio of the callouts, so that they cannot
+ * amplify an outage of a target. Retries share a node-wide budget.
+ *
+ * <p>Each callout deposits its configured ratio of an attempt and each additional attempt withdraws a whole one. The balance is capped
+ * so that a quiet period cannot build up a burst of additional attempts.</p>
+ *
+ * @author GraviteeSource Team
+ */
+public class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private static final RetryBudget SHARED = new RetryBudget(100);
+
+    private final long maxBalance;
+
+    private final AtomicLong balance;
+
+    RetryBudget(int maxRetries) {
+        this.maxBalance = maxRetries * UNIT;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public static RetryBudget shared() {
+        return SHARED;
+    }
+
+    public void deposit(double ratio) {
+        long amount = (long) (ratio * UNIT);
+        balance.accumulateAndGet(amount, (current, added) -> Math.min(maxBalance, current + added));
+    }
+
+    /**
+     * @return <code>true</code> if a retry is allowed, in which case it is withdrawn from the budget
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNIT));
+        return true;
+    }
+
+    public double available() {
+        return (double) balance.get() / UNIT;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import io.reactivex.rxjava3.core.Single;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesce concurrent executions sharing the same key: the first subscriber triggers the execution and
+ * every subscriber arriving before it terminates receives the same result.
+ *
+ * <p>The shared execution is not cancelled when a subscriber is disposed, so that the other subscribers still get the result.</p>
+ *
+ * @author GraviteeSource Team
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Single<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Single<V> execute(K key, Supplier<Single<V>> execution) {
+        return Single.defer(() ->
+            inFlight.computeIfAbsent(key, k -> {
+                AtomicReference<Single<V>> shared = new AtomicReference<>();
+                shared.set(execution.get().doFinally(() -> inFlight.remove(k, shared.get())).cache());
+                return shared.get();
+            })
+        );
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
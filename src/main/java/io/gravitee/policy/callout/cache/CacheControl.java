@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.cache;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The <code>Cache-Control</code> response directives relevant for a shared client cache.
+ * Missing delta-seconds directives are represented by <code>-1</code>.
+ *
+ * @author GraviteeSource Team
+ */
+record CacheControl(
+    boolean noStore,
+    boolean noCache,
+    boolean privateResponse,
+    boolean mustRevalidate,
+    long maxAge,
+    long sMaxAge,
+    long staleWhileRevalidate
+) {
+    static CacheControl parse(List<String> values) {
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean privateResponse = false;
+        boolean mustRevalidate = false;
+        long maxAge = -1;
+        long sMaxAge = -1;
+        long staleWhileRevalidate = -1;
+
+        if (values != null) {
+            for (String value : values) {
+                for (String directive : value.split(",")) {
+                    int separator = directive.indexOf('=');
+                    String name = (separator < 0 ? directive : directive.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+                    String argument = separator < 0 ? null : directive.substring(separator + 1).trim();
+                    switch (name) {
+                        case "no-store" -> noStore = true;
+                        case "no-cache" -> noCache = true;
+                        case "private" -> privateResponse = true;
+                        case "must-revalidate", "proxy-revalidate" -> mustRevalidate = true;
+                        case "max-age" -> maxAge = deltaSeconds(argument);
+                        case "s-maxage" -> sMaxAge = deltaSeconds(argument);
+                        case "stale-while-revalidate" -> staleWhileRevalidate = deltaSeconds(argument);
+                        default -> {
+                            // Other directives do not apply to this cache.
+                        }
+                    }
+                }
+            }
+        }
+
+        return new CacheControl(noStore, noCache, privateResponse, mustRevalidate, maxAge, sMaxAge, staleWhileRevalidate);
+    }
+
+    private static long deltaSeconds(String argument) {
+        if (argument == null) {
+            return -1;
+        }
+        try {
+            // A malformed delta-seconds makes the response stale.
+            return Math.max(0, Long.parseLong(argument.replace("\"", "")));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.cache;
+
+import io.gravitee.policy.callout.CalloutResponse;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A callout response stored in the {@link CalloutResponseCache} with its freshness information and validators.
+ *
+ * @author GraviteeSource Team
+ */
+public final class CachedCallout {
+
+    private final CalloutResponse response;
+    private final long size;
+    private final long freshUntil;
+    private final long staleUntil;
+    private final String etag;
+    private final String lastModified;
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+
+    CachedCallout(CalloutResponse response, long size, long freshUntil, long staleUntil, String etag, String lastModified) {
+        this.response = response;
+        this.size = size;
+        this.freshUntil = freshUntil;
+        this.staleUntil = staleUntil;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public CalloutResponse response() {
+        return response;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public String lastModified() {
+        return lastModified;
+    }
+
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Mark this entry as being revalidated in the background.
+     *
+     * @return <code>true</code> if no other revalidation was already in progress for this entry
+     */
+    public boolean startRevalidation() {
+        return revalidating.compareAndSet(false, true);
+    }
+
+    public void endRevalidation() {
+        revalidating.set(false);
+    }
+
+    long size() {
+        return size;
+    }
+
+    long freshUntil() {
+        return freshUntil;
+    }
+
+    long staleUntil() {
+        return staleUntil;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.cache;
+
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.policy.callout.CalloutHttpPolicy;
+import io.vertx.core.buffer.Buffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Identifies a callout by its method and evaluated request.
+ * Unlike {@link io.gravitee.policy.callout.configuration.HttpHeader}, header values take part in the equality.
+ *
+ * @param body the evaluated body, <code>null</code> when the body is sent as is
+ * @param bodyDigest the SHA-256 digest of the body sent as is, so that it is neither decoded nor retained by the key
+ * @author GraviteeSource Team
+ */
+public record CalloutCacheKey(HttpMethod method, String url, String body, String bodyDigest, List<Map.Entry<String, String>> headers) {
+    public static CalloutCacheKey of(HttpMethod method, CalloutHttpPolicy.Req req) {
+        List<Map.Entry<String, String>> headers = req.headerList() == null
+            ? List.of()
+            : req
+                .headerList()
+                .stream()
+                .<Map.Entry<String, String>>map(header -> new AbstractMap.SimpleImmutableEntry<>(header.getName(), header.getValue()))
+                .toList();
+        if (req.rawBody() != null) {
+            return new CalloutCacheKey(method, req.url(), null, digest(req.rawBody()), headers);
+        }
+        return new CalloutCacheKey(method, req.url(), req.body().orElse(null), null, headers);
+    }
+
+    private static String digest(Buffer body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(body.getBytes());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    long estimatedSize() {
+        long size = length(url) + length(body) + length(bodyDigest);
+        for (Map.Entry<String, String> header : headers) {
+            size += length(header.getKey()) + length(header.getValue());
+        }
+        return size;
+    }
+
+    static long length(String value) {
+        // Strings are stored as UTF-16 on the heap.
+        return value == null ? 0 : 2L * value.length();
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.cache;
+
+import io.gravitee.gateway.api.http.HttpHeaders;
+import io.gravitee.policy.callout.CalloutResponse;
+import io.gravitee.policy.callout.configuration.CacheMode;
+import io.gravitee.policy.callout.configuration.CacheOptions;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of callout responses.
+ *
+ * <p>
+ * In {@link CacheMode#TIME_TO_LIVE} mode, successful responses expire after the configured time to live.
+ * In {@link CacheMode#HTTP} mode, freshness follows the <code>Cache-Control</code> and <code>Expires</code> response headers,
+ * stale responses may be served while being revalidated and responses carrying an <code>ETag</code> or a
+ * <code>Last-Modified</code> validator are kept to be revalidated with a conditional request.
+ * </p>
+ *
+ * <p>
+ * In both modes, the least recently used entries are evicted as soon as the maximum number of entries
+ * or the maximum size is exceeded.
+ * </p>
+ *
+ * @author GraviteeSource Team
+ */
+public class CalloutResponseCache {
+
+    private static final String CACHE_CONTROL = "Cache-Control";
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String EXPIRES = "Expires";
+    private static final String DATE = "Date";
+    private static final String AGE = "Age";
+
+    /**
+     * Headers describing the framing of the stored body, or the connection, which are not updated from a <code>304</code> response
+     * (RFC 9111, section 3.2).
+     */
+    private static final Set<String> NOT_UPDATED_HEADERS = Set.of(
+        "content-length",
+        "content-encoding",
+        "content-range",
+        "transfer-encoding",
+        "connection",
+        "keep-alive"
+    );
+
+    private final CacheMode mode;
+    private final long timeToLiveMillis;
+    private final long staleWhileRevalidateMillis;
+    private final int maxEntries;
+    private final long maxSizeBytes;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<CalloutCacheKey, CachedCallout> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    public CalloutResponseCache(CacheOptions options) {
+        this(options, System::currentTimeMillis);
+    }
+
+    CalloutResponseCache(CacheOptions options, LongSupplier clock) {
+        this.mode = options.getMode() == null ? CacheMode.TIME_TO_LIVE : options.getMode();
+        this.timeToLiveMillis = TimeUnit.SECONDS.toMillis(options.getTimeToLiveSeconds());
+        this.staleWhileRevalidateMillis = TimeUnit.SECONDS.toMillis(options.getStaleWhileRevalidateSeconds());
+        this.maxEntries = options.getMaxEntries();
+        this.maxSizeBytes = options.getMaxSizeBytes();
+        this.clock = clock;
+    }
+
+    /**
+     * @return the response if it is fresh, empty otherwise
+     */
+    public Optional<CalloutResponse> get(CalloutCacheKey key) {
+        Lookup lookup = lookup(key);
+        return lookup.state() == Lookup.State.FRESH ? Optional.of(lookup.entry().response()) : Optional.empty();
+    }
+
+    public synchronized Lookup lookup(CalloutCacheKey key) {
+        CachedCallout entry = entries.get(key);
+        if (entry == null) {
+            return Lookup.MISS;
+        }
+
+        long now = clock.getAsLong();
+        if (now < entry.freshUntil()) {
+            return new Lookup(Lookup.State.FRESH, entry);
+        }
+        if (now < entry.staleUntil()) {
+            return new Lookup(Lookup.State.STALE, entry);
+        }
+        if (entry.hasValidators()) {
+            return new Lookup(Lookup.State.EXPIRED, entry);
+        }
+
+        remove(key);
+        return Lookup.MISS;
+    }
+
+    /**
+     * Store the response if it is cacheable, or drop the previously cached one when the response forbids storing it.
+     */
+    public void put(CalloutCacheKey key, CalloutResponse response) {
+        if (response.getStatus() >= 200 && response.getStatus() < 300) {
+            store(key, response, response.getHeaders());
+        } else if (mode == CacheMode.HTTP) {
+            synchronized (this) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * Refresh an entry after the target answered <code>304 Not Modified</code> to a conditional request.
+     *
+     * @param key the cache key
+     * @param entry the entry that has been revalidated
+     * @param notModifiedHeaders the headers of the <code>304</code> response, which may update the freshness and the validators
+     * @return the stored response to use in place of the <code>304</code> one
+     */
+    public CalloutResponse revalidated(CalloutCacheKey key, CachedCallout entry, HttpHeaders notModifiedHeaders) {
+        HttpHeaders headers = HttpHeaders.create();
+        entry.response().getHeaders().forEach(header -> headers.add(header.getKey(), header.getValue()));
+        for (String name : notModifiedHeaders.names()) {
+            if (NOT_UPDATED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            headers.remove(name);
+            notModifiedHeaders.getAll(name).forEach(value -> headers.add(name, value));
+        }
+
+        CalloutResponse response = new CalloutResponse(entry.response().getStatus(), headers, entry.response().getContent());
+        store(key, response, headers);
+        return response;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long sizeBytes() {
+        return sizeBytes;
+    }
+
+    private void store(CalloutCacheKey key, CalloutResponse response, HttpHeaders headers) {
+        long now = clock.getAsLong();
+        long size = key.estimatedSize() + estimatedSize(response);
+        CachedCallout entry = mode == CacheMode.HTTP ? httpEntry(response, size, headers, now) : ttlEntry(response, size, now);
+
+        synchronized (this) {
+            if (entry == null || maxEntries <= 0 || size > maxSizeBytes) {
+                remove(key);
+                return;
+            }
+
+            CachedCallout previous = entries.put(key, entry);
+            if (previous != null) {
+                sizeBytes -= previous.size();
+            }
+            sizeBytes += size;
+
+            Iterator<Map.Entry<CalloutCacheKey, CachedCallout>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || sizeBytes > maxSizeBytes) && eldest.hasNext()) {
+                sizeBytes -= eldest.next().getValue().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    private CachedCallout ttlEntry(CalloutResponse response, long size, long now) {
+        if (timeToLiveMillis <= 0) {
+            return null;
+        }
+        return new CachedCallout(response, size, now + timeToLiveMillis, now + timeToLiveMillis, null, null);
+    }
+
+    private CachedCallout httpEntry(CalloutResponse response, long size, HttpHeaders headers, long now) {
+        CacheControl cacheControl = CacheControl.parse(headers.getAll(CACHE_CONTROL));
+        if (cacheControl.noStore() || cacheControl.privateResponse()) {
+            return null;
+        }
+
+        long lifetimeMillis = 0;
+        if (!cacheControl.noCache()) {
+            if (cacheControl.sMaxAge() >= 0) {
+                lifetimeMillis = TimeUnit.SECONDS.toMillis(cacheControl.sMaxAge());
+            } else if (cacheControl.maxAge() >= 0) {
+                lifetimeMillis = TimeUnit.SECONDS.toMillis(cacheControl.maxAge());
+            } else {
+                lifetimeMillis = expiresLifetime(headers, now);
+            }
+            lifetimeMillis -= ageMillis(headers);
+        }
+
+        long staleMillis = 0;
+        if (!cacheControl.noCache() && !cacheControl.mustRevalidate()) {
+            staleMillis = cacheControl.staleWhileRevalidate() >= 0
+                ? TimeUnit.SECONDS.toMillis(cacheControl.staleWhileRevalidate())
+                : staleWhileRevalidateMillis;
+        }
+
+        String etag = headers.get(ETAG);
+        String lastModified = headers.get(LAST_MODIFIED);
+        if (lifetimeMillis <= 0 && staleMillis <= 0 && etag == null && lastModified == null) {
+            return null;
+        }
+
+        long freshUntil = now + Math.max(0, lifetimeMillis);
+        return new CachedCallout(response, size, freshUntil, freshUntil + staleMillis, etag, lastModified);
+    }
+
+    private static long expiresLifetime(HttpHeaders headers, long now) {
+        String expires = headers.get(EXPIRES);
+        if (expires == null) {
+            return 0;
+        }
+        try {
+            long expiresAt = ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            String date = headers.get(DATE);
+            long responseDate = date == null
+                ? now
+                : ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return expiresAt - responseDate;
+        } catch (DateTimeParseException e) {
+            // An invalid Expires date means the response is already expired.
+            return 0;
+        }
+    }
+
+    private static long ageMillis(HttpHeaders headers) {
+        String age = headers.get(AGE);
+        if (age == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(age.trim())));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void remove(CalloutCacheKey key) {
+        CachedCallout removed = entries.remove(key);
+        if (removed != null) {
+            sizeBytes -= removed.size();
+        }
+    }
+
+    private static long estimatedSize(CalloutResponse response) {
+        long size = CalloutCacheKey.length(response.getContent());
+        if (response.getHeaders() != null) {
+            for (Map.Entry<String, String> header : response.getHeaders()) {
+                size += CalloutCacheKey.length(header.getKey()) + CalloutCacheKey.length(header.getValue());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Result of a cache lookup.
+     *
+     * @param state the freshness of the entry
+     * @param entry the cached entry, <code>null</code> on a {@link State#MISS}
+     */
+    public record Lookup(State state, CachedCallout entry) {
+        static final Lookup MISS = new Lookup(State.MISS, null);
+
+        public enum State {
+            /**
+             * Nothing usable is cached.
+             */
+            MISS,
+            /**
+             * The cached response can be used as is.
+             */
+            FRESH,
+            /**
+             * The cached response can be used but must be revalidated in the background.
+             */
+            STALE,
+            /**
+             * The cached response must be revalidated with a conditional request before being used.
+             */
+            EXPIRED,
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.circuitbreaker;
+
+import io.gravitee.policy.callout.configuration.CircuitBreakerOptions;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker of a callout target.
+ *
+ * <p>
+ * While <strong>CLOSED</strong>, the outcomes of the last calls are recorded in a sliding window and the circuit opens as soon as
+ * the failure rate or the slow call rate reaches its threshold. While <strong>OPEN</strong>, calls are rejected until the open
+ * duration elapsed. The circuit is then <strong>HALF_OPEN</strong> and lets a limited number of probe calls through: it closes
+ * once they all succeeded and opens again as soon as one of them fails or is slow.
+ * </p>
+ *
+ * @author GraviteeSource Team
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallDurationMs;
+    private final int slowCallRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    private final byte[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probes;
+    private int succeededProbes;
+
+    public CircuitBreaker(CircuitBreakerOptions options) {
+        this(options, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(CircuitBreakerOptions options, LongSupplier clock) {
+        this.minimumCalls = Math.max(1, options.getMinimumCalls());
+        this.failureRateThreshold = options.getFailureRateThreshold();
+        this.slowCallDurationMs = options.getSlowCallDurationMs();
+        this.slowCallRateThreshold = options.getSlowCallRateThreshold();
+        this.openDurationMs = options.getOpenDurationMs();
+        this.halfOpenProbes = Math.max(1, options.getHalfOpenProbes());
+        this.clock = clock;
+        this.outcomes = new byte[Math.max(1, options.getSlidingWindowSize())];
+    }
+
+    /**
+     * @return <code>true</code> if a call is permitted, in which case its outcome must be reported with {@link #onResult(long, boolean)}
+     * or {@link #onCancel(long)}
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probes = 0;
+            succeededProbes = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probes >= halfOpenProbes) {
+                return false;
+            }
+            probes++;
+        }
+        return true;
+    }
+
+    public synchronized void onResult(long durationMs, boolean failure) {
+        boolean slow = slowCallDurationMs > 0 && durationMs >= slowCallDurationMs;
+        switch (state) {
+            case HALF_OPEN -> {
+                if (failure || slow) {
+                    open();
+                } else if (++succeededProbes >= halfOpenProbes) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                record(failure, slow);
+                if (
+                    calls >= minimumCalls &&
+                    (failures * 100L >= (long) failureRateThreshold * calls || slowCalls * 100L >= (long) slowCallRateThreshold * calls)
+                ) {
+                    open();
+                }
+            }
+            default -> {
+                // Outcome of a call permitted before the circuit opened.
+            }
+        }
+    }
+
+    /**
+     * Report a call cancelled before its outcome was known. It is recorded as a slow call when it already lasted longer than the slow
+     * call duration, typically when cancelled by a timeout, otherwise its permit is released.
+     */
+    public synchronized void onCancel(long durationMs) {
+        if (slowCallDurationMs > 0 && durationMs >= slowCallDurationMs) {
+            onResult(durationMs, false);
+        } else if (state == State.HALF_OPEN && probes > succeededProbes) {
+            probes--;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure, boolean slow) {
+        if (calls == outcomes.length) {
+            byte evicted = outcomes[next];
+            failures -= (evicted & FAILURE) != 0 ? 1 : 0;
+            slowCalls -= (evicted & SLOW) != 0 ? 1 : 0;
+        } else {
+            calls++;
+        }
+        outcomes[next] = (byte) ((failure ? FAILURE : 0) | (slow ? SLOW : 0));
+        failures += failure ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
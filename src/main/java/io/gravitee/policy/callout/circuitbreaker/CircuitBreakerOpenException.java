@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.circuitbreaker;
+
+import io.gravitee.policy.callout.CalloutException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Signals a callout rejected without being sent because the circuit breaker of its target is open.
+ *
+ * @author GraviteeSource Team
+ */
+public class CircuitBreakerOpenException extends CalloutException {
+
+    public CircuitBreakerOpenException(String target) {
+        super(new RejectedExecutionException("Circuit breaker is open for callout target " + target));
+    }
+}
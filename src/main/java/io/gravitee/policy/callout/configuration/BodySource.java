@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+/**
+ * Where the body of the callout request comes from.
+ *
+ * @author GraviteeSource Team
+ */
+public enum BodySource {
+    /**
+     * The configured body, evaluated with EL.
+     */
+    CONFIGURATION,
+    /**
+     * The body of the request or response being processed, or the content of the Kafka message, sent as is.
+     */
+    INCOMING,
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Configuration of the in-memory cache used to avoid calling the target again for an identical callout request.
+ *
+ * @author GraviteeSource Team
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CacheOptions implements Serializable {
+
+    private boolean enabled;
+
+    @Builder.Default
+    private CacheMode mode = CacheMode.TIME_TO_LIVE;
+
+    @Builder.Default
+    private long timeToLiveSeconds = 60;
+
+    @Builder.Default
+    private int maxEntries = 1000;
+
+    @Builder.Default
+    private long maxSizeBytes = 10 * 1024 * 1024;
+
+    /**
+     * In {@link CacheMode#HTTP} mode, how long a stale response can still be served while it is refreshed in the background,
+     * unless the response defines its own <code>stale-while-revalidate</code> directive.
+     */
+    private long staleWhileRevalidateSeconds;
+}
@@ -48,6 +48,9 @@ public class CalloutHttpPolicyConfiguration implements PolicyConfiguration {
 
     private String body;
 
+    @Builder.Default
+    private BodySource bodySource = BodySource.CONFIGURATION;
+
     private HttpMethod method;
 
     @Builder.Default
@@ -57,6 +60,9 @@ public class CalloutHttpPolicyConfiguration implements PolicyConfiguration {
 
     private boolean fireAndForget;
 
+    @Builder.Default
+    private FireAndForgetOptions fireAndForgetOptions = new FireAndForgetOptions();
+
     private String errorCondition;
 
     @Builder.Default
@@ -66,7 +72,26 @@ public class CalloutHttpPolicyConfiguration implements PolicyConfiguration {
 
     private boolean useSystemProxy;
 
+    private boolean coalesceRequests;
+
+    private boolean latencyHistograms;
+
     @Builder.Default
     @JsonProperty("http")
     private HttpClientOptions httpOptions = new HttpClientOptions();
+
+    @Builder.Default
+    private CacheOptions cache = new CacheOptions();
+
+    @Builder.Default
+    private KafkaOptions kafka = new KafkaOptions();
+
+    @Builder.Default
+    private RetryOptions retry = new RetryOptions();
+
+    @Builder.Default
+    private CircuitBreakerOptions circuitBreaker = new CircuitBreakerOptions();
+
+    @Builder.Default
+    private HedgingOptions hedging = new HedgingOptions();
 }
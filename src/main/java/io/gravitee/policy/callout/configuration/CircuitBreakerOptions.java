@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Circuit breaker failing callouts fast while their target host is failing or too slow.
+ *
+ * @author GraviteeSource Team
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CircuitBreakerOptions implements Serializable {
+
+    private boolean enabled;
+
+    /**
+     * The number of the most recent calls from which the failure and slow call rates are computed.
+     */
+    @Builder.Default
+    private int slidingWindowSize = 20;
+
+    /**
+     * The number of calls to record before the rates are evaluated.
+     */
+    @Builder.Default
+    private int minimumCalls = 10;
+
+    /**
+     * The percentage of failed calls, i.e. connection errors, timeouts and 5xx responses, from which the circuit opens.
+     */
+    @Builder.Default
+    private int failureRateThreshold = 50;
+
+    @Builder.Default
+    private long slowCallDurationMs = 5000;
+
+    /**
+     * The percentage of calls slower than the slow call duration from which the circuit opens.
+     */
+    @Builder.Default
+    private int slowCallRateThreshold = 100;
+
+    /**
+     * How long callouts are rejected once the circuit is open, before probe calls are let through.
+     */
+    @Builder.Default
+    private long openDurationMs = 30000;
+
+    /**
+     * The number of successful probe calls required to close a half-open circuit. A single failed or slow probe opens it again.
+     */
+    @Builder.Default
+    private int halfOpenProbes = 3;
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bounds of the fire and forget callouts made by a policy instance.
+ *
+ * @author GraviteeSource Team
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class FireAndForgetOptions implements Serializable {
+
+    @Builder.Default
+    private int maxInFlight = 100;
+
+    /**
+     * The number of callouts waiting for one of the in-flight callouts to complete.
+     */
+    @Builder.Default
+    private int queueCapacity = 1000;
+
+    @Builder.Default
+    private FireAndForgetOverflow overflow = FireAndForgetOverflow.DROP_OLDEST;
+
+    /**
+     * Send the callouts sharing the same URL and headers as a single request, flushed once the batch reaches the maximum count or
+     * size, or after the linger time.
+     */
+    private boolean batchEnabled;
+
+    @Builder.Default
+    private BatchFormat batchFormat = BatchFormat.NDJSON;
+
+    @Builder.Default
+    private int batchMaxCount = 100;
+
+    @Builder.Default
+    private long batchMaxBytes = 1048576;
+
+    @Builder.Default
+    private long batchLingerMs = 100;
+
+    @Builder.Default
+    private SpoolOptions spool = new SpoolOptions();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+/**
+ * What to do with a fire and forget callout when the maximum number of callouts are in flight and the queue is full.
+ *
+ * @author GraviteeSource Team
+ */
+public enum FireAndForgetOverflow {
+    /**
+     * The oldest queued callout is dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * The new callout is dropped.
+     */
+    DROP_NEWEST,
+    /**
+     * The execution making the callout is suspended, without blocking its thread, until the callout can be queued.
+     */
+    BLOCK,
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Hedging of idempotent callouts: a second attempt is sent when the first one is slower than a delay, and the first response wins.
+ *
+ * @author GraviteeSource Team
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class HedgingOptions implements Serializable {
+
+    private boolean enabled;
+
+    /**
+     * The delay after which the hedged attempt is sent, also used until enough latencies are observed when a percentile is set.
+     */
+    @Builder.Default
+    private long delayMs = 100;
+
+    /**
+     * When set, the hedged attempt is sent once the callout is slower than this percentile of the observed latencies,
+     * e.g. <code>95</code>. <code>0</code> always uses the fixed delay.
+     */
+    private int delayPercentile;
+
+    /**
+     * The number of hedged attempts allowed per callout, e.g. <code>0.1</code> adds at most 10% of extra load to the target.
+     */
+    @Builder.Default
+    private double maxHedgeRatio = 0.1;
+}
@@ -17,13 +17,114 @@ package io.gravitee.policy.callout.configuration;
 
 import java.io.Serializable;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
+@Builder
 @Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class HttpClientOptions implements Serializable {
 
+    @Builder.Default
     private int maxConcurrentConnections = 20;
+
+    @Builder.Default
+    private HttpProtocol protocol = HttpProtocol.HTTP_1_1;
+
+    /**
+     * The maximum number of HTTP/2 connections per target.
+     */
+    @Builder.Default
+    private int http2MaxConnections = 1;
+
+    /**
+     * The maximum number of concurrent streams per HTTP/2 connection, <code>-1</code> to use the limit advertised by the target.
+     */
+    @Builder.Default
+    private int http2MultiplexingLimit = -1;
+
+    /**
+     * The maximum number of callouts waiting for a connection, <code>-1</code> for an unbounded wait queue.
+     */
+    @Builder.Default
+    private int maxWaitQueueSize = -1;
+
+    @Builder.Default
+    private boolean keepAlive = true;
+
+    /**
+     * How long an unused connection is kept in the pool, <code>0</code> to keep it forever.
+     */
+    @Builder.Default
+    private int keepAliveTimeoutSeconds = 60;
+
+    /**
+     * Close a connection when no data has been sent or received for this duration, <code>0</code> to disable.
+     */
+    private int idleTimeoutSeconds;
+
+    private boolean pipelining;
+
+    @Builder.Default
+    private int pipeliningLimit = 10;
+
+    /**
+     * The maximum lifetime of a connection, <code>0</code> for no limit.
+     */
+    private int maxLifetimeSeconds;
+
+    /**
+     * The maximum time to establish a connection to the target.
+     */
+    @Builder.Default
+    private int connectTimeoutMs = 3000;
+
+    /**
+     * Fail the callout when no data has been received for this duration, <code>0</code> to disable.
+     */
+    @Builder.Default
+    private long readTimeoutMs = 60000;
+
+    /**
+     * The maximum time for the whole callout, from connection to the end of the response, <code>0</code> to disable.
+     */
+    private long requestTimeoutMs;
+
+    /**
+     * How long in-flight callouts are awaited when the policy is closed, before its HTTP client is released.
+     */
+    @Builder.Default
+    private long drainTimeoutMs = 10000;
+
+    /**
+     * The maximum size of a callout response body in bytes, <code>0</code> for no limit.
+     */
+    private long maxResponseBodySize;
+
+    @Builder.Default
+    private ResponseBodyOverflow responseBodyOverflow = ResponseBodyOverflow.FAIL;
+
+    /**
+     * Send <code>Accept-Encoding</code> and decompress the responses encoded with gzip or deflate, and brotli when its codec is
+     * available on the gateway.
+     */
+    private boolean decompressionSupported;
+
+    @Builder.Default
+    private RequestCompression requestCompression = RequestCompression.NONE;
+
+    /**
+     * The minimum size of a request body in bytes for it to be compressed.
+     */
+    @Builder.Default
+    private int requestCompressionThreshold = 1024;
+
+    public HttpClientOptions(int maxConcurrentConnections) {
+        this();
+        this.maxConcurrentConnections = maxConcurrentConnections;
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+/**
+ * @author GraviteeSource Team
+ */
+public enum HttpProtocol {
+    /**
+     * One request at a time per connection.
+     */
+    HTTP_1_1,
+    /**
+     * HTTP/2 negotiated with ALPN over TLS, or upgraded from HTTP/1.1 for plain text targets.
+     */
+    HTTP_2,
+    /**
+     * HTTP/2 over plain text with prior knowledge, without any upgrade.
+     */
+    H2C,
+}
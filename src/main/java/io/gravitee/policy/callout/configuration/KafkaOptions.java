@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Options applied when the policy is executed on native Kafka messages.
+ *
+ * @author GraviteeSource Team
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class KafkaOptions implements Serializable {
+
+    /**
+     * Send one callout for a batch of messages instead of one callout per message.
+     * The request body is a JSON array holding one element per message and the response must be a JSON array of the same size.
+     */
+    private boolean batchEnabled;
+
+    @Builder.Default
+    private int batchMaxMessages = 100;
+
+    @Builder.Default
+    private long batchMaxBytes = 1024 * 1024;
+
+    @Builder.Default
+    private long batchLingerMs = 10;
+
+    /**
+     * The maximum number of message callouts in flight at the same time, per partition when {@link MessageOrdering#PARTITION} is used.
+     */
+    @Builder.Default
+    private int concurrency = 1;
+
+    @Builder.Default
+    private MessageOrdering ordering = MessageOrdering.GLOBAL;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+/**
+ * How messages are ordered when several message callouts are in flight at the same time.
+ *
+ * @author GraviteeSource Team
+ */
+public enum MessageOrdering {
+    /**
+     * Messages are emitted in the order they have been received.
+     */
+    GLOBAL,
+    /**
+     * Messages of the same partition are emitted in the order they have been received,
+     * messages of different partitions may be reordered.
+     */
+    PARTITION,
+    /**
+     * Messages are emitted as soon as their callout is done.
+     */
+    NONE,
+}
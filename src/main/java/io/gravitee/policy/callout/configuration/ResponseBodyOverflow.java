@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+/**
+ * What to do when a callout response body exceeds the configured maximum size.
+ *
+ * @author GraviteeSource Team
+ */
+public enum ResponseBodyOverflow {
+    /**
+     * The callout fails as soon as the limit is exceeded.
+     */
+    FAIL,
+    /**
+     * The body is truncated to the maximum size and the rest of the response is discarded.
+     */
+    TRUNCATE,
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Retry of idempotent callouts failing with a connection error, a timeout or one of the configured status codes.
+ *
+ * @author GraviteeSource Team
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class RetryOptions implements Serializable {
+
+    private boolean enabled;
+
+    @Builder.Default
+    private int maxRetries = 2;
+
+    @Builder.Default
+    private long initialBackoffMs = 100;
+
+    @Builder.Default
+    private long maxBackoffMs = 2000;
+
+    @Builder.Default
+    private double backoffMultiplier = 2;
+
+    /**
+     * Randomize each backoff between half and all of its computed value, so that callouts failing together are not retried together.
+     */
+    @Builder.Default
+    private boolean jitter = true;
+
+    /**
+     * The maximum time of each attempt, <code>0</code> to only rely on the request timeout.
+     */
+    private long perAttemptTimeoutMs;
+
+    @Builder.Default
+    private List<Integer> retryOnStatus = new ArrayList<>(List.of(502, 503, 504));
+
+    /**
+     * The number of retries allowed per callout made on the node, e.g. <code>0.2</code> allows at most one retry for five callouts.
+     */
+    @Builder.Default
+    private double budgetRatio = 0.2;
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.configuration;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Local disk spool keeping the fire and forget callouts that failed or were dropped, to replay them once the target recovers.
+ *
+ * @author GraviteeSource Team
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class SpoolOptions implements Serializable {
+
+    private boolean enabled;
+
+    /**
+     * The directory of the spool segment files, relative to the spool directory of the node, set with the
+     * <code>policy.callout.spool.directory</code> property and by default <code>${gravitee.home}/data/callout-spool</code>. When not
+     * set, a directory dedicated to the configured method and URL is used. The directory and its files are restricted to their owner.
+     */
+    private String directory;
+
+    @Builder.Default
+    private long maxSizeBytes = 268435456;
+
+    @Builder.Default
+    private int segmentSizeBytes = 16777216;
+
+    /**
+     * The maximum number of spooled callouts replayed per second. Replay pauses for a second as soon as a replayed callout fails.
+     */
+    @Builder.Default
+    private int replayRatePerSecond = 50;
+}
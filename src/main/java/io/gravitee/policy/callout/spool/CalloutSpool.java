@@ -0,0 +1,419 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.spool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.CustomLog;
+
+/**
+ * Append-only spool of callouts to replay, stored in memory-mapped segment files of a fixed size.
+ *
+ * <p>
+ * Each record is made of its payload length, the CRC32 of its payload, its state and its payload. The length is written last, so that
+ * a record interrupted by a crash is never read back. Once replayed, a record is marked as done in place, and a segment is deleted as
+ * soon as all its records are done and it is no longer written to.
+ * </p>
+ *
+ * <p>
+ * When opened, the segments of the directory are scanned and the scan of each segment stops at the first invalid record, i.e. with an
+ * unexpected length or state, or a payload not matching its checksum. The records of the spool are read from the segments when
+ * replayed, so that only the segments are held in memory. The number of segments is bounded and a record is rejected when the
+ * spool is full.
+ * </p>
+ *
+ * <p>
+ * Spools are shared by directory, so that several policy instances configured with the same directory write to the same files. The
+ * options of the first policy opening a directory apply until every policy using it released it, the spool being then closed. Its
+ * records are replayed by a single user at a time, which claims the replay.
+ * </p>
+ *
+ * <p>As records hold the full callout requests, credentials included, the directory and the segments are only accessible to their
+ * owner on POSIX file systems. An existing directory accessible to others is refused.</p>
+ *
+ * @author GraviteeSource Team
+ */
+@CustomLog
+public class CalloutSpool {
+
+    static final int HEADER_BYTES = 9;
+    static final byte PENDING = 1;
+    static final byte DONE = 2;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Map<Path, CalloutSpool> SPOOLS = new ConcurrentHashMap<>();
+    private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> SEGMENT_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final int segmentSizeBytes;
+    private final boolean posix;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private long nextSequence;
+    private Segment readSegment;
+    private int readOffset;
+    private boolean closed;
+
+    // Guarded by the SPOOLS map, only updated while computing the entry of the directory.
+    private int references;
+
+    private Object replayer;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Open the spool of the directory, or share it when already opened. It must be released once no longer used.
+     */
+    public static CalloutSpool open(Path directory, long maxSizeBytes, int segmentSizeBytes) {
+        CalloutSpool spool = SPOOLS.compute(directory.toAbsolutePath().normalize(), (dir, opened) -> {
+            CalloutSpool shared = opened != null ? opened : new CalloutSpool(dir, maxSizeBytes, segmentSizeBytes);
+            shared.references++;
+            return shared;
+        });
+        if (spool.maxSizeBytes != maxSizeBytes || spool.segmentSizeBytes != segmentSizeBytes) {
+            log.warn(
+                "Callout spool {} is already opened with a max size of {} bytes and segments of {} bytes, ignoring {} and {} bytes",
+                spool.directory,
+                spool.maxSizeBytes,
+                spool.segmentSizeBytes,
+                maxSizeBytes,
+                segmentSizeBytes
+            );
+        }
+        return spool;
+    }
+
+    /**
+     * Release the spool opened with {@link #open(Path, long, int)}. Once released by all its users, it is closed: records are then
+     * rejected, and the segments are unmapped once garbage collected.
+     */
+    public void release() {
+        SPOOLS.computeIfPresent(directory, (dir, opened) -> {
+            if (opened != this || --references > 0) {
+                return opened;
+            }
+            close();
+            return null;
+        });
+    }
+
+    CalloutSpool(Path directory, long maxSizeBytes, int segmentSizeBytes) {
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+        this.segmentBytes = Math.max(HEADER_BYTES + 1, segmentSizeBytes);
+        this.maxSegments = (int) Math.max(2, maxSizeBytes / this.segmentBytes);
+        try {
+            if (posix) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+                // A directory which already existed is refused rather than restricted, as it may be used for something else.
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory);
+                if (!permissions.equals(DIRECTORY_PERMISSIONS)) {
+                    throw new AccessDeniedException(
+                        directory.toString(),
+                        null,
+                        "permissions are " + PosixFilePermissions.toString(permissions) + " instead of rwx------"
+                    );
+                }
+            } else {
+                Files.createDirectories(directory);
+            }
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open callout spool " + directory, e);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the record was written, <code>false</code> if the spool is full or the record larger than a segment
+     */
+    public synchronized boolean append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (closed || recordBytes > segmentBytes) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (active == null || active.position + recordBytes > segmentBytes) {
+            deleteDoneSegments();
+            if (segments.size() >= maxSegments) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            try {
+                active = createSegment();
+            } catch (IOException e) {
+                log.warn("Unable to create a callout spool segment in {}", directory, e);
+                dropped.incrementAndGet();
+                return false;
+            }
+            deleteDoneSegments();
+        }
+
+        int offset = active.position;
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        active.buffer.putInt(offset + 4, (int) crc.getValue());
+        active.buffer.put(offset + 8, PENDING);
+        active.buffer.put(offset + HEADER_BYTES, payload);
+        active.buffer.putInt(offset, payload.length);
+        active.position += recordBytes;
+        active.pendingRecords++;
+        return true;
+    }
+
+    /**
+     * @return the oldest record still to replay, <code>null</code> if none. It must then be either acknowledged or requeued.
+     */
+    public synchronized Entry poll() {
+        if (closed) {
+            return null;
+        }
+        while (readSegment != null) {
+            if (readOffset < readSegment.position) {
+                int offset = readOffset;
+                int length = readSegment.buffer.getInt(offset);
+                readOffset += HEADER_BYTES + length;
+                if (readSegment.buffer.get(offset + 8) == PENDING) {
+                    byte[] payload = new byte[length];
+                    readSegment.buffer.get(offset + HEADER_BYTES, payload);
+                    return new Entry(readSegment, offset, payload);
+                }
+            } else {
+                int index = segments.indexOf(readSegment);
+                if (index + 1 >= segments.size()) {
+                    return null;
+                }
+                readSegment = segments.get(index + 1);
+                readOffset = 0;
+            }
+        }
+        if (segments.isEmpty()) {
+            return null;
+        }
+        readSegment = segments.get(0);
+        readOffset = 0;
+        return poll();
+    }
+
+    /**
+     * Mark the record as replayed.
+     */
+    public synchronized void ack(Entry entry) {
+        if (closed) {
+            return;
+        }
+        Segment segment = entry.segment;
+        if (segment.buffer.get(entry.offset + 8) == PENDING) {
+            segment.buffer.put(entry.offset + 8, DONE);
+            segment.pendingRecords--;
+        }
+        deleteDoneSegments();
+    }
+
+    /**
+     * Give the record back to be replayed again with the next poll.
+     */
+    public synchronized void requeue(Entry entry) {
+        int segmentIndex = segments.indexOf(entry.segment);
+        int readIndex = segments.indexOf(readSegment);
+        if (segmentIndex >= 0 && (segmentIndex < readIndex || (segmentIndex == readIndex && entry.offset < readOffset))) {
+            readSegment = entry.segment;
+            readOffset = entry.offset;
+        }
+    }
+
+    /**
+     * Claim the replay of the records, unless another user already replays them.
+     *
+     * @return <code>true</code> if the replay belongs to the given user
+     */
+    public synchronized boolean claimReplay(Object user) {
+        if (replayer == null) {
+            replayer = user;
+        }
+        return replayer == user;
+    }
+
+    /**
+     * Give up the replay of the records, for another user to claim it.
+     */
+    public synchronized void releaseReplay(Object user) {
+        if (replayer == user) {
+            replayer = null;
+        }
+    }
+
+    /**
+     * @return the number of records still to replay
+     */
+    public synchronized long pending() {
+        return segments.stream().mapToLong(segment -> segment.pendingRecords).sum();
+    }
+
+    /**
+     * @return the number of records rejected because the spool was full
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    synchronized int segments() {
+        return segments.size();
+    }
+
+    private synchronized void close() {
+        closed = true;
+        segments.forEach(segment -> segment.buffer.force());
+        segments.clear();
+        readSegment = null;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted(Comparator.comparingLong(CalloutSpool::sequenceOf))
+                .toList();
+        }
+        for (Path file : files) {
+            Segment segment = new Segment(file, map(file));
+            scan(segment);
+            segments.add(segment);
+            nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+        }
+        deleteDoneSegments();
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            byte state = buffer.get(position + 8);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity() || (state != PENDING && state != DONE)) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Ignoring the end of callout spool segment {} from offset {}: invalid checksum", segment.file, position);
+                break;
+            }
+            if (state == PENDING) {
+                segment.pendingRecords++;
+            }
+            position += HEADER_BYTES + length;
+        }
+        if (position + HEADER_BYTES <= buffer.capacity()) {
+            // Clear the header of the first invalid record, so that it cannot be read back once followed by new records.
+            buffer.put(position, new byte[HEADER_BYTES]);
+        }
+        segment.position = position;
+    }
+
+    private Segment createSegment() throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+        Segment segment = new Segment(file, map(file));
+        segments.add(segment);
+        return segment;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileAttribute<?>[] attributes = posix
+            ? new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(SEGMENT_PERMISSIONS) }
+            : new FileAttribute<?>[0];
+        try (FileChannel channel = FileChannel.open(file, options, attributes)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    /**
+     * Delete the segments whose records are all replayed, except the last one which is still written to.
+     */
+    private void deleteDoneSegments() {
+        for (int i = segments.size() - 2; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (segment.pendingRecords == 0) {
+                if (segment == readSegment) {
+                    readSegment = segments.get(i + 1);
+                    readOffset = 0;
+                }
+                segments.remove(i);
+                try {
+                    Files.deleteIfExists(segment.file);
+                } catch (IOException e) {
+                    log.warn("Unable to delete callout spool segment {}", segment.file, e);
+                }
+            }
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int pendingRecords;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    public record Entry(Segment segment, int offset, byte[] payload) {}
+}
@@ -32,6 +32,9 @@ import io.gravitee.policy.api.annotations.OnRequest;
 import io.gravitee.policy.api.annotations.OnRequestContent;
 import io.gravitee.policy.api.annotations.OnResponse;
 import io.gravitee.policy.api.annotations.OnResponseContent;
+import io.gravitee.policy.callout.CalloutException;
+import io.gravitee.policy.callout.CalloutHttpClientOptionsUtils;
+import io.gravitee.policy.callout.CalloutHttpClientRegistry;
 import io.gravitee.policy.callout.CalloutResponse;
 import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
 import io.gravitee.policy.callout.configuration.PolicyScope;
@@ -39,12 +42,12 @@ import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
-import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.RequestOptions;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import lombok.CustomLog;
 
@@ -53,12 +56,13 @@ import lombok.CustomLog;
  * @author GraviteeSource Team
  */
 @CustomLog
-public class CalloutHttpPolicyV3 {
+public class CalloutHttpPolicyV3 implements AutoCloseable {
 
     protected static final String HTTPS_SCHEME = "https";
 
     public static final String CALLOUT_EXIT_ON_ERROR = "CALLOUT_EXIT_ON_ERROR";
     public static final String CALLOUT_HTTP_ERROR = "CALLOUT_HTTP_ERROR";
+    public static final String CALLOUT_HTTP_TIMEOUT = "CALLOUT_HTTP_TIMEOUT";
 
     protected static final String TEMPLATE_VARIABLE = "calloutResponse";
 
@@ -70,7 +74,7 @@ public class CalloutHttpPolicyV3 {
      */
     protected final CalloutHttpPolicyConfiguration configuration;
 
-    private volatile HttpClient httpClient;
+    private volatile CalloutHttpClientRegistry.Lease<HttpClient> httpClientLease;
 
     /**
      * Create a new CalloutHttp Policy instance based on its associated configuration
@@ -171,13 +175,10 @@ public class CalloutHttpPolicyV3 {
     }
 
     private HttpClient getHttpClient(ExecutionContext context) {
-        if (this.httpClient == null) {
+        if (this.httpClientLease == null) {
             synchronized (this) {
-                if (this.httpClient == null) {
-                    // SSL options (trustAll, verifyHost) are set at client level but only applied per-request
-                    // when the URL scheme is HTTPS. Vertx's RequestOptions.setAbsoluteURI() overrides the client
-                    // SSL setting based on the actual URL scheme, so HTTP requests are not affected.
-                    var options = new HttpClientOptions().setSsl(true).setTrustAll(true).setVerifyHost(false);
+                if (this.httpClientLease == null) {
+                    var options = CalloutHttpClientOptionsUtils.buildHttpClientOptions(configuration.getHttpOptions());
 
                     if (configuration.isUseSystemProxy()) {
                         Configuration config = context.getComponent(Configuration.class);
@@ -190,11 +191,24 @@ public class CalloutHttpPolicyV3 {
                             );
                         }
                     }
-                    this.httpClient = context.getComponent(Vertx.class).createHttpClient(options);
+                    var poolOptions = CalloutHttpClientOptionsUtils.buildPoolOptions(configuration.getHttpOptions());
+                    var vertx = context.getComponent(Vertx.class);
+                    this.httpClientLease = CalloutHttpClientRegistry.shared()
+                        .acquire(this, vertx, options, poolOptions, () -> vertx.createHttpClient(options, poolOptions), HttpClient::close);
                 }
             }
         }
-        return this.httpClient;
+        return this.httpClientLease.client();
+    }
+
+    /**
+     * Release the HTTP client, which is closed once no other policy instance uses it.
+     */
+    @Override
+    public void close() {
+        if (this.httpClientLease != null) {
+            this.httpClientLease.release();
+        }
     }
 
     private void doCallout(ExecutionContext context, Consumer<Void> onSuccess, Consumer<PolicyResult> onError) {
@@ -220,6 +234,9 @@ public class CalloutHttpPolicyV3 {
             HttpClient httpClient = getHttpClient(context);
 
             RequestOptions requestOpts = new RequestOptions().setAbsoluteURI(url).setMethod(convert(configuration.getMethod()));
+            if (configuration.getHttpOptions().getReadTimeoutMs() > 0) {
+                requestOpts.setIdleTimeout(configuration.getHttpOptions().getReadTimeoutMs());
+            }
 
             final Future<HttpClientRequest> futureRequest = httpClient.request(requestOpts);
 
@@ -228,6 +245,14 @@ public class CalloutHttpPolicyV3 {
             futureRequest.onSuccess(httpClientRequest -> {
                 // Connection is made, lets continue.
                 final Future<HttpClientResponse> futureResponse;
+                final long requestTimeout = configuration.getHttpOptions().getRequestTimeoutMs();
+                final long timerId = requestTimeout > 0
+                    ? context
+                        .getComponent(Vertx.class)
+                        .setTimer(requestTimeout, __ ->
+                            httpClientRequest.reset(0, new TimeoutException("Callout did not complete within " + requestTimeout + "ms"))
+                        )
+                    : -1;
 
                 if (configuration.getHeaders() != null) {
                     configuration
@@ -263,6 +288,11 @@ public class CalloutHttpPolicyV3 {
                     futureResponse = httpClientRequest.send();
                 }
 
+                if (timerId != -1) {
+                    // The request timeout covers the exchange up to the response headers, the body is then bound by the read timeout.
+                    futureResponse.onComplete(__ -> context.getComponent(Vertx.class).cancelTimer(timerId));
+                }
+
                 futureResponse
                     .onSuccess(httpResponse -> handleSuccess(context, onSuccessCallback, onErrorCallback, httpResponse))
                     .onFailure(throwable -> handleFailure(onSuccessCallback, onErrorCallback, throwable));
@@ -282,7 +312,7 @@ public class CalloutHttpPolicyV3 {
             TemplateEngine tplEngine = context.getTemplateEngine();
 
             // Put response into template variable for EL
-            final CalloutResponse calloutResponse = new CalloutResponse(httpResponse, body.toString());
+            final CalloutResponse calloutResponse = new CalloutResponse(httpResponse, body);
 
             if (!configuration.isFireAndForget()) {
                 // Variables and exit on error are only managed if the fire & forget is disabled.
@@ -339,7 +369,8 @@ public class CalloutHttpPolicyV3 {
     private void handleFailure(Consumer<Void> onSuccess, Consumer<PolicyResult> onError, Throwable throwable) {
         if (configuration.isExitOnError()) {
             // exit chain only if policy ask ExitOnError
-            onError.accept(PolicyResult.failure(CALLOUT_HTTP_ERROR, throwable.getMessage()));
+            String key = CalloutException.isTimeout(throwable) ? CALLOUT_HTTP_TIMEOUT : CALLOUT_HTTP_ERROR;
+            onError.accept(PolicyResult.failure(key, throwable.getMessage()));
         } else {
             // otherwise continue chaining
             onSuccess.accept(null);
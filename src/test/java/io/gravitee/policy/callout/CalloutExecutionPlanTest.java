@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
+import io.gravitee.policy.callout.configuration.HttpHeader;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpMethod;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class CalloutExecutionPlanTest {
+
+    @Test
+    void should_reuse_request_options_of_literal_url() {
+        var template = template("https://localhost:8443/path?query=value");
+        var plan = CalloutExecutionPlan.of(template, HttpMethod.POST, 1000);
+
+        var requestOptions = plan.requestOptions(template.literalRequest());
+
+        assertThat(requestOptions).isSameAs(plan.requestOptions(template.literalRequest()));
+        assertThat(requestOptions.getMethod()).isEqualTo(HttpMethod.POST);
+        assertThat(requestOptions.getHost()).isEqualTo("localhost");
+        assertThat(requestOptions.getPort()).isEqualTo(8443);
+        assertThat(requestOptions.getURI()).isEqualTo("/path?query=value");
+        assertThat(requestOptions.getIdleTimeout()).isEqualTo(1000);
+    }
+
+    @Test
+    void should_build_request_options_of_dynamic_url() {
+        var template = template("http://localhost:8080/{#request.params['id']}");
+        var plan = CalloutExecutionPlan.of(template, HttpMethod.GET, 0);
+
+        var requestOptions = plan.requestOptions(new CalloutHttpPolicy.Req("http://localhost:8080/1", Optional.empty(), List.of()));
+
+        assertThat(plan.staticRequestOptions()).isNull();
+        assertThat(requestOptions.getURI()).isEqualTo("/1");
+        assertThat(requestOptions.getMethod()).isEqualTo(HttpMethod.GET);
+    }
+
+    @Test
+    void should_build_request_options_of_another_method() {
+        var template = template("https://localhost:8443/path");
+        var plan = CalloutExecutionPlan.of(template, HttpMethod.POST, 1000);
+
+        var requestOptions = plan.requestOptions(template.literalRequest(), HttpMethod.PUT);
+
+        assertThat(requestOptions).isNotSameAs(plan.staticRequestOptions());
+        assertThat(requestOptions.getMethod()).isEqualTo(HttpMethod.PUT);
+        assertThat(requestOptions.getURI()).isEqualTo("/path");
+        assertThat(plan.staticRequestOptions().getMethod()).isEqualTo(HttpMethod.POST);
+    }
+
+    @Test
+    void should_apply_static_headers() {
+        var template = template("http://localhost:8080/");
+        var plan = CalloutExecutionPlan.of(template, HttpMethod.GET, 0);
+        var request = mock(HttpClientRequest.class);
+
+        plan.applyHeaders(request, template.literalRequest());
+
+        verify(request).putHeader("X-Header", "value");
+        verifyNoMoreInteractions(request);
+    }
+
+    private CalloutRequestTemplate template(String url) {
+        return CalloutRequestTemplate.of(
+            CalloutHttpPolicyConfiguration.builder()
+                .url(url)
+                .method(io.gravitee.common.http.HttpMethod.GET)
+                .headers(List.of(new HttpHeader("X-Header", "value"), new HttpHeader("X-Null", null)))
+                .build()
+        );
+    }
+}
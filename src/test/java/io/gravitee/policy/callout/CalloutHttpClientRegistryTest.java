@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.PoolOptions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CalloutHttpClientRegistryTest {
+
+    private final CalloutHttpClientRegistry registry = new CalloutHttpClientRegistry();
+
+    private final Object vertx = new Object();
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final List<String> closed = new ArrayList<>();
+
+    @Test
+    void should_share_client_between_identical_options() {
+        var first = acquire(new HttpClientOptions().setConnectTimeout(1000), new PoolOptions());
+        var second = acquire(new HttpClientOptions().setConnectTimeout(1000), new PoolOptions());
+
+        assertThat(second.client()).isSameAs(first.client());
+        assertThat(created).hasValue(1);
+        assertThat(registry.openClients()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_share_client_between_different_options() {
+        var first = acquire(new HttpClientOptions(), new PoolOptions());
+        var second = acquire(new HttpClientOptions(), new PoolOptions().setHttp1MaxSize(50));
+        var third = acquire(new HttpClientOptions().setConnectTimeout(1000), new PoolOptions());
+
+        assertThat(List.of(first.client(), second.client(), third.client())).doesNotHaveDuplicates();
+        assertThat(registry.openClients()).isEqualTo(3);
+    }
+
+    @Test
+    void should_not_share_client_between_vertx_instances() {
+        var first = acquire(new HttpClientOptions(), new PoolOptions());
+        var second = registry.acquire(new Object(), new Object(), new HttpClientOptions(), new PoolOptions(), this::create, closed::add);
+
+        assertThat(second.client()).isNotEqualTo(first.client());
+    }
+
+    @Test
+    void should_close_client_once_last_lease_is_released() {
+        var first = acquire(new HttpClientOptions(), new PoolOptions());
+        var second = acquire(new HttpClientOptions(), new PoolOptions());
+
+        first.release();
+        assertThat(closed).isEmpty();
+
+        second.release();
+        assertThat(closed).containsExactly(first.client());
+        assertThat(registry.openClients()).isZero();
+    }
+
+    @Test
+    void should_ignore_lease_released_twice() {
+        var first = acquire(new HttpClientOptions(), new PoolOptions());
+        acquire(new HttpClientOptions(), new PoolOptions());
+
+        first.release();
+        first.release();
+
+        assertThat(closed).isEmpty();
+        assertThat(registry.openClients()).isEqualTo(1);
+    }
+
+    @Test
+    void should_create_new_client_after_previous_one_is_closed() {
+        var first = acquire(new HttpClientOptions(), new PoolOptions());
+        first.release();
+
+        var second = acquire(new HttpClientOptions(), new PoolOptions());
+
+        assertThat(second.client()).isNotEqualTo(first.client());
+        assertThat(created).hasValue(2);
+    }
+
+    private CalloutHttpClientRegistry.Lease<String> acquire(HttpClientOptions options, PoolOptions poolOptions) {
+        return registry.acquire(this, vertx, options, poolOptions, this::create, closed::add);
+    }
+
+    private String create() {
+        return "client-" + created.incrementAndGet();
+    }
+}
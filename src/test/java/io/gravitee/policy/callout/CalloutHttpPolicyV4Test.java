@@ -16,20 +16,28 @@
 package io.gravitee.policy.callout;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static io.gravitee.policy.v3.callout.CalloutHttpPolicyV3.CALLOUT_EXIT_ON_ERROR;
 import static io.gravitee.policy.v3.callout.CalloutHttpPolicyV3.CALLOUT_HTTP_ERROR;
+import static io.gravitee.policy.v3.callout.CalloutHttpPolicyV3.CALLOUT_HTTP_TIMEOUT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.*;
 import static test.RequestBuilder.aRequest;
 
+import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import io.gravitee.common.http.HttpMethod;
 import io.gravitee.el.TemplateEngine;
 import io.gravitee.gateway.reactive.api.ExecutionFailure;
@@ -39,23 +47,45 @@ import io.gravitee.gateway.reactive.api.tracing.Tracer;
 import io.gravitee.gateway.reactive.core.context.interruption.InterruptionFailureException;
 import io.gravitee.node.api.Node;
 import io.gravitee.node.api.configuration.Configuration;
+import io.gravitee.policy.callout.circuitbreaker.CircuitBreaker;
+import io.gravitee.policy.callout.configuration.BodySource;
+import io.gravitee.policy.callout.configuration.CacheMode;
+import io.gravitee.policy.callout.configuration.CacheOptions;
 import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
+import io.gravitee.policy.callout.configuration.CircuitBreakerOptions;
+import io.gravitee.policy.callout.configuration.FireAndForgetOptions;
+import io.gravitee.policy.callout.configuration.HedgingOptions;
 import io.gravitee.policy.callout.configuration.HttpClientOptions;
+import io.gravitee.policy.callout.configuration.HttpProtocol;
+import io.gravitee.policy.callout.configuration.KafkaOptions;
+import io.gravitee.policy.callout.configuration.MessageOrdering;
+import io.gravitee.policy.callout.configuration.RequestCompression;
+import io.gravitee.policy.callout.configuration.ResponseBodyOverflow;
+import io.gravitee.policy.callout.configuration.RetryOptions;
+import io.gravitee.policy.callout.configuration.SpoolOptions;
 import io.gravitee.policy.callout.configuration.Variable;
+import io.gravitee.policy.callout.spool.CalloutSpool;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.processors.ReplayProcessor;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.http.PoolOptions;
 import io.vertx.rxjava3.core.Vertx;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import test.ExecutionContextBuilder;
@@ -160,6 +190,84 @@ class CalloutHttpPolicyV4Test {
             );
         }
 
+        @Test
+        void should_send_incoming_request_body_to_callout_call() {
+            wiremock.stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            String body = "{\"incoming\": \"éàü\"}";
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().body(body).build())
+                .build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .body("ignored")
+                    .bodySource(BodySource.INCOMING)
+                    .build()
+            )
+                .onRequest(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            wiremock.verify(
+                postRequestedFor(urlPathEqualTo("/"))
+                    .withRequestBody(equalTo(body))
+                    .withHeader("Content-Length", equalTo(String.valueOf(body.getBytes(StandardCharsets.UTF_8).length)))
+            );
+        }
+
+        @Test
+        void should_compress_callout_request_body_above_threshold() {
+            wiremock.stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(200)));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .body("x".repeat(2048))
+                    .httpOptions(
+                        HttpClientOptions.builder().requestCompression(RequestCompression.GZIP).requestCompressionThreshold(1024).build()
+                    )
+                    .build()
+            )
+                .onRequest(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            wiremock.verify(postRequestedFor(urlPathEqualTo("/")).withHeader("Content-Encoding", equalTo("gzip")));
+        }
+
+        @Test
+        void should_accept_and_decompress_encoded_callout_response() {
+            var content = "{\"key\": \"" + "x".repeat(2048) + "\"}";
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody(content)));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .variables(List.of(new Variable("content", "{#calloutResponse.content}")))
+                    .httpOptions(HttpClientOptions.builder().decompressionSupported(true).build())
+                    .build()
+            )
+                .onRequest(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            wiremock.verify(getRequestedFor(urlPathEqualTo("/")).withHeader("Accept-Encoding", containing("gzip")));
+            assertThat(ctx.getAttributes()).containsEntry("content", content);
+        }
+
         @Test
         void should_send_dynamic_body_to_callout_call() {
             wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
@@ -223,6 +331,89 @@ class CalloutHttpPolicyV4Test {
                 .containsEntry("callout3", Map.of("key", "a-value"));
         }
 
+        @Test
+        void should_expose_parsed_json_content_to_variables() {
+            wiremock.stubFor(
+                get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\", \"items\": [1, 2]}"))
+            );
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .variables(
+                        List.of(
+                            new Variable("callout1", "{#calloutResponse.json['key']}"),
+                            new Variable("callout2", "{#calloutResponse.json['items'][1]}")
+                        )
+                    )
+                    .build()
+            )
+                .onRequest(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            assertThat(ctx.getAttributes()).containsEntry("callout1", "a-value").containsEntry("callout2", "2");
+        }
+
+        @Test
+        void should_serve_identical_callouts_from_cache_when_enabled() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            var policy = policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .cache(CacheOptions.builder().enabled(true).build())
+                    .variables(List.of(new Variable("callout", "{#jsonPath(#calloutResponse.content, '$.key')}")))
+                    .build()
+            );
+
+            for (int i = 0; i < 3; i++) {
+                var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+                policy.onRequest(ctx).test().awaitDone(30, TimeUnit.SECONDS).assertComplete();
+                assertThat(ctx.getAttributes()).containsEntry("callout", "a-value");
+            }
+
+            wiremock.verify(1, getRequestedFor(urlPathEqualTo("/")));
+        }
+
+        @Test
+        void should_revalidate_cached_response_using_etag_when_http_cache_mode_enabled() {
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .withHeader("If-None-Match", absent())
+                    .willReturn(
+                        aResponse()
+                            .withStatus(200)
+                            .withHeader("Cache-Control", "no-cache")
+                            .withHeader("ETag", "\"v1\"")
+                            .withBody("{\"key\": \"a-value\"}")
+                    )
+            );
+            wiremock.stubFor(get(urlEqualTo("/")).withHeader("If-None-Match", equalTo("\"v1\"")).willReturn(aResponse().withStatus(304)));
+
+            var policy = policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .cache(CacheOptions.builder().enabled(true).mode(CacheMode.HTTP).build())
+                    .variables(List.of(new Variable("callout", "{#jsonPath(#calloutResponse.content, '$.key')}")))
+                    .build()
+            );
+
+            for (int i = 0; i < 2; i++) {
+                var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+                policy.onRequest(ctx).test().awaitDone(30, TimeUnit.SECONDS).assertComplete();
+                assertThat(ctx.getAttributes()).containsEntry("callout", "a-value");
+            }
+
+            wiremock.verify(1, getRequestedFor(urlPathEqualTo("/")).withHeader("If-None-Match", equalTo("\"v1\"")));
+        }
+
         @ParameterizedTest
         @ValueSource(booleans = { true, false })
         void should_call_and_do_nothing_when_no_variables_defined(boolean exitOnError) {
@@ -332,58 +523,65 @@ class CalloutHttpPolicyV4Test {
                 });
         }
 
-        @ParameterizedTest
-        @ValueSource(booleans = { true, false })
-        void should_call_and_do_nothing_when_fire_and_forget_defined(boolean exitOnError) {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
-            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+        @Test
+        void should_interrupt_with_timeout_key_when_target_is_too_slow() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().build())
+                .build();
 
             policy(
                 CalloutHttpPolicyConfiguration.builder()
-                    .url(targetUrl(false))
+                    .url(wiremock.baseUrl() + "/")
                     .method(HttpMethod.GET)
-                    .fireAndForget(true)
-                    .variables(
-                        List.of(
-                            new Variable("callout1", "static"),
-                            new Variable("callout2", "{#jsonPath(#calloutResponse.content, '$.key')}")
-                        )
-                    )
-                    .exitOnError(exitOnError)
+                    .exitOnError(true)
                     .errorCondition("{#calloutResponse.status != 200}")
+                    .httpOptions(HttpClientOptions.builder().requestTimeoutMs(200).build())
                     .build()
             )
                 .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
-                .assertComplete();
-
-            assertThat(ctx.getAttributes()).isEmpty();
-            await()
-                .atMost(10, TimeUnit.SECONDS)
-                .untilAsserted(() -> wiremock.verify(getRequestedFor(urlPathEqualTo("/"))));
+                .assertError(e -> {
+                    assertThat(e).isInstanceOf(InterruptionFailureException.class);
+                    var executionFailure = ((InterruptionFailureException) e).getExecutionFailure();
+                    assertThat(executionFailure.statusCode()).isEqualTo(500);
+                    assertThat(executionFailure.key()).isEqualTo(CALLOUT_HTTP_TIMEOUT);
+                    return true;
+                });
         }
 
         @Test
-        void should_call_https_target() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
+        void should_retry_idempotent_callout_failing_with_retryable_status() {
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("retry")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(503))
+                    .willSetStateTo("available")
+            );
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("retry")
+                    .whenScenarioStateIs("available")
+                    .willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}"))
+            );
             var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
                 .withComponent(Vertx.class, Vertx.vertx())
-                .request(aRequest().header("X-Header2", "value2").build())
+                .request(aRequest().build())
                 .build();
 
             policy(
                 CalloutHttpPolicyConfiguration.builder()
-                    .url(targetUrl(true))
+                    .url(targetUrl(false))
                     .method(HttpMethod.GET)
-                    .headers(
-                        List.of(
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header1", "value1"),
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header2", "{#request.headers['X-Header2'][0]}")
-                        )
-                    )
+                    .exitOnError(true)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .retry(RetryOptions.builder().enabled(true).initialBackoffMs(10).build())
+                    .variables(List.of(new Variable("my-attribute", "{#jsonPath(#calloutResponse.content, '$.key')}")))
                     .build()
             )
                 .onRequest(ctx)
@@ -391,210 +589,266 @@ class CalloutHttpPolicyV4Test {
                 .awaitDone(30, TimeUnit.SECONDS)
                 .assertComplete();
 
-            wiremock.verify(
-                getRequestedFor(urlPathEqualTo("/")).withHeader("header1", equalTo("value1")).withHeader("header2", equalTo("value2"))
-            );
+            assertThat(ctx.getAttributes()).containsEntry("my-attribute", "a-value");
+            wiremock.verify(2, getRequestedFor(urlPathEqualTo("/")));
         }
 
         @Test
-        void should_call_target_using_system_proxy() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
+        void should_not_retry_non_idempotent_callout() {
+            wiremock.stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(503)));
             var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
                 .withComponent(Vertx.class, Vertx.vertx())
-                .withComponent(io.gravitee.node.api.configuration.Configuration.class, nodeConfiguration)
-                .request(aRequest().header("X-Header2", "value2").build())
+                .request(aRequest().build())
                 .build();
 
-            policy(CalloutHttpPolicyConfiguration.builder().useSystemProxy(true).url(targetUrl(false)).method(HttpMethod.GET).build())
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .retry(RetryOptions.builder().enabled(true).initialBackoffMs(10).build())
+                    .build()
+            )
                 .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
                 .assertComplete();
 
-            wiremock.verify(getRequestedFor(urlPathEqualTo("/")));
-
-            verify(nodeConfiguration).getProperty("system.proxy.port");
-            verify(nodeConfiguration).getProperty("system.proxy.type");
-            verify(nodeConfiguration).getProperty("system.proxy.host");
-            verify(nodeConfiguration).getProperty("system.proxy.username");
-            verify(nodeConfiguration).getProperty("system.proxy.password");
+            wiremock.verify(1, postRequestedFor(urlPathEqualTo("/")));
         }
-    }
-
-    @Nested
-    class OnResponse {
 
         @Test
-        void should_add_headers_to_callout_call() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
+        void should_not_retry_callout_failing_deterministically() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("x".repeat(2048))));
             var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
                 .withComponent(Vertx.class, Vertx.vertx())
-                .request(aRequest().header("X-Header2", "value2").build())
+                .request(aRequest().build())
                 .build();
 
             policy(
                 CalloutHttpPolicyConfiguration.builder()
                     .url(targetUrl(false))
                     .method(HttpMethod.GET)
-                    .headers(
-                        List.of(
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header1", "value1"),
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header2", "{#request.headers['X-Header2'][0]}")
-                        )
-                    )
+                    .exitOnError(true)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .retry(RetryOptions.builder().enabled(true).initialBackoffMs(10).build())
+                    .httpOptions(HttpClientOptions.builder().maxResponseBodySize(1024).build())
                     .build()
             )
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
-                .assertComplete();
+                .assertError(InterruptionFailureException.class);
 
-            wiremock.verify(
-                getRequestedFor(urlPathEqualTo("/")).withHeader("header1", equalTo("value1")).withHeader("header2", equalTo("value2"))
-            );
+            wiremock.verify(1, getRequestedFor(urlPathEqualTo("/")));
         }
 
         @Test
-        void should_not_add_null_header_to_callout_call() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
-            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+        void should_use_hedged_callout_response_when_first_attempt_is_slow() {
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("hedging")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(200).withBody("{\"key\": \"slow\"}").withFixedDelay(5000))
+                    .willSetStateTo("fast")
+            );
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("hedging")
+                    .whenScenarioStateIs("fast")
+                    .willReturn(aResponse().withStatus(200).withBody("{\"key\": \"fast\"}"))
+            );
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().build())
+                .build();
 
             policy(
                 CalloutHttpPolicyConfiguration.builder()
                     .url(targetUrl(false))
                     .method(HttpMethod.GET)
-                    .headers(
-                        List.of(
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header1", "value1"),
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header2", "value2"),
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header3", null),
-                            new io.gravitee.policy.callout.configuration.HttpHeader("header4", "{#context.attributes['unknown']}")
-                        )
-                    )
+                    .hedging(HedgingOptions.builder().enabled(true).delayMs(50).build())
+                    .variables(List.of(new Variable("my-attribute", "{#jsonPath(#calloutResponse.content, '$.key')}")))
                     .build()
             )
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
-                .awaitDone(30, TimeUnit.SECONDS)
+                .awaitDone(3, TimeUnit.SECONDS)
                 .assertComplete();
 
-            wiremock.verify(
-                getRequestedFor(urlPathEqualTo("/")).withHeader("header1", equalTo("value1")).withHeader("header2", equalTo("value2"))
-            );
+            assertThat(ctx.getAttributes()).containsEntry("my-attribute", "fast");
+            wiremock.verify(2, getRequestedFor(urlPathEqualTo("/")));
         }
 
         @Test
-        void should_send_static_body_to_callout_call() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
-            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+        void should_keep_first_attempt_when_hedged_callout_fails() {
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("hedging")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withStatus(200).withBody("{\"key\": \"slow\"}").withFixedDelay(500))
+                    .willSetStateTo("failing")
+            );
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("hedging")
+                    .whenScenarioStateIs("failing")
+                    .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER))
+            );
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().build())
+                .build();
 
-            String body = "static body";
-            policy(CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).body(body).build())
-                .onResponse(ctx)
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .exitOnError(true)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .hedging(HedgingOptions.builder().enabled(true).delayMs(50).build())
+                    .variables(List.of(new Variable("my-attribute", "{#jsonPath(#calloutResponse.content, '$.key')}")))
+                    .build()
+            )
+                .onRequest(ctx)
                 .test()
-                .awaitDone(30, TimeUnit.SECONDS)
+                .awaitDone(3, TimeUnit.SECONDS)
                 .assertComplete();
 
-            wiremock.verify(
-                getRequestedFor(urlPathEqualTo("/"))
-                    .withRequestBody(equalTo(body))
-                    .withoutHeader("Transfer-Encoding")
-                    .withHeader("Content-Length", equalTo(String.valueOf(body.length())))
-            );
+            assertThat(ctx.getAttributes()).containsEntry("my-attribute", "slow");
+            wiremock.verify(2, getRequestedFor(urlPathEqualTo("/")));
         }
 
         @Test
-        void should_send_dynamic_body_to_callout_call() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
-            String body = "dynamic body";
+        void should_wait_for_hedged_callout_when_first_attempt_fails() {
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("hedging")
+                    .whenScenarioStateIs(Scenario.STARTED)
+                    .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER).withFixedDelay(200))
+                    .willSetStateTo("hedged")
+            );
+            wiremock.stubFor(
+                get(urlEqualTo("/"))
+                    .inScenario("hedging")
+                    .whenScenarioStateIs("hedged")
+                    .willReturn(aResponse().withStatus(200).withBody("{\"key\": \"hedged\"}").withFixedDelay(400))
+            );
             var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
                 .withComponent(Vertx.class, Vertx.vertx())
-                .request(aRequest().header("X-Body", body).build())
+                .request(aRequest().build())
                 .build();
 
             policy(
                 CalloutHttpPolicyConfiguration.builder()
                     .url(targetUrl(false))
                     .method(HttpMethod.GET)
-                    .body("{#request.headers['X-Body'][0]}")
+                    .exitOnError(true)
+                    .hedging(HedgingOptions.builder().enabled(true).delayMs(50).build())
+                    .variables(List.of(new Variable("my-attribute", "{#jsonPath(#calloutResponse.content, '$.key')}")))
                     .build()
             )
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
-                .awaitDone(30, TimeUnit.SECONDS)
+                .awaitDone(3, TimeUnit.SECONDS)
                 .assertComplete();
 
-            wiremock.verify(
-                getRequestedFor(urlPathEqualTo("/"))
-                    .withRequestBody(equalTo(body))
-                    .withoutHeader("Transfer-Encoding")
-                    .withHeader("Content-Length", equalTo(String.valueOf(body.length())))
-            );
+            assertThat(ctx.getAttributes()).containsEntry("my-attribute", "hedged");
+            wiremock.verify(2, getRequestedFor(urlPathEqualTo("/")));
         }
 
-        @ParameterizedTest
-        @ValueSource(booleans = { true, false })
-        void should_add_variables_in_context_when_callout_succeed(boolean exitOnError) {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
-
-            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
-
-            policy(
+        @Test
+        void should_interrupt_without_calling_target_while_circuit_breaker_is_open() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(503)));
+            var policy = policy(
                 CalloutHttpPolicyConfiguration.builder()
                     .url(targetUrl(false))
                     .method(HttpMethod.GET)
-                    .exitOnError(exitOnError)
-                    .errorCondition("{#calloutResponse.status != 200}")
-                    .variables(
-                        List.of(
-                            new Variable("callout1", "static"),
-                            new Variable("callout2", "{#jsonPath(#calloutResponse.content, '$.key')}")
-                        )
-                    )
+                    .exitOnError(true)
+                    .circuitBreaker(CircuitBreakerOptions.builder().enabled(true).minimumCalls(1).build())
                     .build()
-            )
-                .onResponse(ctx)
+            );
+
+            var failingCtx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().build())
+                .build();
+            policy.onRequest(failingCtx).test().awaitDone(30, TimeUnit.SECONDS);
+
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().build())
+                .build();
+            policy
+                .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
-                .assertComplete();
-
-            assertThat(ctx.getAttributes()).containsEntry("callout1", "static").containsEntry("callout2", "a-value");
+                .assertError(e -> {
+                    assertThat(e).isInstanceOf(InterruptionFailureException.class);
+                    var executionFailure = ((InterruptionFailureException) e).getExecutionFailure();
+                    assertThat(executionFailure.key()).isEqualTo(CALLOUT_HTTP_ERROR);
+                    assertThat(executionFailure.message()).contains("Circuit breaker is open");
+                    return true;
+                });
+            wiremock.verify(1, getRequestedFor(urlPathEqualTo("/")));
         }
 
-        @ParameterizedTest
-        @ValueSource(booleans = { true, false })
-        void should_call_and_do_nothing_when_no_variables_defined(boolean exitOnError) {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+        @Test
+        void should_evict_closed_circuit_breakers_once_max_targets_is_reached() {
+            var policy = policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .circuitBreaker(CircuitBreakerOptions.builder().enabled(true).minimumCalls(1).build())
+                    .build()
+            );
+            var first = policy.circuitBreaker("host-0:80");
+            for (int i = 1; i < CalloutHttpPolicy.MAX_CIRCUIT_BREAKERS; i++) {
+                policy.circuitBreaker("host-" + i + ":80");
+            }
 
-            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+            var next = policy.circuitBreaker("next:80");
 
-            policy(
+            assertThat(policy.circuitBreaker("next:80")).isSameAs(next);
+            assertThat(policy.circuitBreaker("host-0:80")).isNotSameAs(first);
+        }
+
+        @Test
+        void should_share_circuit_breaker_of_other_targets_while_max_targets_are_open() {
+            var policy = policy(
                 CalloutHttpPolicyConfiguration.builder()
                     .url(targetUrl(false))
                     .method(HttpMethod.GET)
-                    .exitOnError(exitOnError)
-                    .errorCondition("{#calloutResponse.status != 200}")
+                    .circuitBreaker(CircuitBreakerOptions.builder().enabled(true).minimumCalls(1).build())
                     .build()
-            )
-                .onResponse(ctx)
-                .test()
-                .awaitDone(30, TimeUnit.SECONDS)
-                .assertComplete();
+            );
+            for (int i = 0; i < CalloutHttpPolicy.MAX_CIRCUIT_BREAKERS; i++) {
+                var circuitBreaker = policy.circuitBreaker("host-" + i + ":80");
+                circuitBreaker.tryAcquire();
+                circuitBreaker.onResult(0, true);
+            }
 
-            assertThat(ctx.getAttributes()).isEmpty();
-            wiremock.verify(getRequestedFor(urlPathEqualTo("/")));
+            var other = policy.circuitBreaker("other-0:80");
+
+            assertThat(other.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+            assertThat(policy.circuitBreaker("other-1:80")).isSameAs(other);
+            assertThat(policy.circuitBreaker("host-0:80").state()).isEqualTo(CircuitBreaker.State.OPEN);
         }
 
         @Test
-        void should_interrupt_when_exitOnError_and_use_default_message_when_no_error_content_defined() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(400).withBody("Bad request")));
-
-            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+        void should_interrupt_when_response_body_exceeds_max_size() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("x".repeat(2048))));
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().build())
+                .build();
 
             policy(
                 CalloutHttpPolicyConfiguration.builder()
@@ -602,48 +856,42 @@ class CalloutHttpPolicyV4Test {
                     .method(HttpMethod.GET)
                     .exitOnError(true)
                     .errorCondition("{#calloutResponse.status != 200}")
+                    .httpOptions(HttpClientOptions.builder().maxResponseBodySize(1024).build())
                     .build()
             )
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
                 .assertError(e -> {
-                    assertThat(e)
-                        .isInstanceOf(InterruptionFailureException.class)
-                        .extracting(error -> ((InterruptionFailureException) error).getExecutionFailure())
-                        .extracting(ExecutionFailure::statusCode, ExecutionFailure::key, ExecutionFailure::message)
-                        .containsExactly(500, CALLOUT_EXIT_ON_ERROR, "Request is terminated.");
+                    assertThat(e).isInstanceOf(InterruptionFailureException.class);
+                    var executionFailure = ((InterruptionFailureException) e).getExecutionFailure();
+                    assertThat(executionFailure.key()).isEqualTo(CALLOUT_HTTP_ERROR);
+                    assertThat(executionFailure.message()).contains("exceeds the maximum size of 1024 bytes");
                     return true;
                 });
         }
 
         @Test
-        void should_interrupt_when_exitOnError_and_use_provided_configuration() {
-            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(400).withBody("Bad request")));
-
+        void should_truncate_response_body_exceeding_max_size() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("x".repeat(2048))));
             var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
 
             policy(
                 CalloutHttpPolicyConfiguration.builder()
                     .url(targetUrl(false))
                     .method(HttpMethod.GET)
-                    .exitOnError(true)
-                    .errorCondition("{#calloutResponse.status != 200}")
-                    .errorStatusCode(502)
-                    .errorContent("Error: {#calloutResponse.content}")
+                    .variables(List.of(new Variable("content", "{#calloutResponse.content}")))
+                    .httpOptions(
+                        HttpClientOptions.builder().maxResponseBodySize(1024).responseBodyOverflow(ResponseBodyOverflow.TRUNCATE).build()
+                    )
                     .build()
             )
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
-                .assertError(e -> {
-                    assertThat(e)
-                        .isInstanceOf(InterruptionFailureException.class)
-                        .extracting(error -> ((InterruptionFailureException) error).getExecutionFailure())
-                        .extracting(ExecutionFailure::statusCode, ExecutionFailure::key, ExecutionFailure::message)
-                        .containsExactly(502, CALLOUT_EXIT_ON_ERROR, "Error: Bad request");
-                    return true;
-                });
+                .assertComplete();
+
+            assertThat(ctx.getAttributes()).containsEntry("content", "x".repeat(1024));
         }
 
         @ParameterizedTest
@@ -668,7 +916,7 @@ class CalloutHttpPolicyV4Test {
                     .errorCondition("{#calloutResponse.status != 200}")
                     .build()
             )
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
                 .assertComplete();
@@ -679,6 +927,39 @@ class CalloutHttpPolicyV4Test {
                 .untilAsserted(() -> wiremock.verify(getRequestedFor(urlPathEqualTo("/"))));
         }
 
+        @Test
+        void should_send_batched_fire_and_forget_callouts_as_ndjson() {
+            wiremock.stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(200)));
+            var policy = policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .body("{\"id\": \"{#request.headers['X-Id'][0]}\"}")
+                    .fireAndForget(true)
+                    .fireAndForgetOptions(FireAndForgetOptions.builder().batchEnabled(true).batchMaxCount(2).batchLingerMs(60000).build())
+                    .build()
+            );
+
+            for (String id : List.of("1", "2")) {
+                var ctx = new ExecutionContextBuilder()
+                    .withComponent(Vertx.class, Vertx.vertx())
+                    .request(aRequest().header("X-Id", id).build())
+                    .build();
+                policy.onRequest(ctx).test().awaitDone(30, TimeUnit.SECONDS).assertComplete();
+            }
+
+            await()
+                .atMost(10, TimeUnit.SECONDS)
+                .untilAsserted(() ->
+                    wiremock.verify(
+                        1,
+                        postRequestedFor(urlPathEqualTo("/"))
+                            .withHeader("Content-Type", equalTo("application/x-ndjson"))
+                            .withRequestBody(equalTo("{\"id\":\"1\"}\n{\"id\":\"2\"}\n"))
+                    )
+                );
+        }
+
         @Test
         void should_call_https_target() {
             wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
@@ -700,7 +981,7 @@ class CalloutHttpPolicyV4Test {
                     )
                     .build()
             )
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
                 .assertComplete();
@@ -721,7 +1002,7 @@ class CalloutHttpPolicyV4Test {
                 .build();
 
             policy(CalloutHttpPolicyConfiguration.builder().useSystemProxy(true).url(targetUrl(false)).method(HttpMethod.GET).build())
-                .onResponse(ctx)
+                .onRequest(ctx)
                 .test()
                 .awaitDone(30, TimeUnit.SECONDS)
                 .assertComplete();
@@ -737,77 +1018,627 @@ class CalloutHttpPolicyV4Test {
     }
 
     @Nested
-    class OnMessageRequest {
+    class OnResponse {
 
-        @ParameterizedTest
-        @ValueSource(ints = { 1, 5, 10 })
-        void should_make_http_calls_for_kafka_messages(int recordsCount) {
+        @Test
+        void should_add_headers_to_callout_call() {
             wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
 
-            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
-            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
-            when(ctx.request()).thenReturn(request);
-            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
-            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
-            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
-            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
-
-            List<KafkaMessage> messages = new ArrayList<>();
-            for (int i = 0; i < recordsCount; i++) {
-                KafkaMessage stubMessage = new KafkaMessageStub("test_" + i);
-                messages.add(stubMessage);
-            }
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().header("X-Header2", "value2").build())
+                .build();
 
-            policy(CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).build())
-                .onMessageRequest(ctx)
-                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .headers(
+                        List.of(
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header1", "value1"),
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header2", "{#request.headers['X-Header2'][0]}")
+                        )
+                    )
+                    .build()
+            )
+                .onResponse(ctx)
                 .test()
-                .awaitDone(3, TimeUnit.SECONDS)
+                .awaitDone(30, TimeUnit.SECONDS)
                 .assertComplete();
 
-            ReplayProcessor<KafkaMessage> messagesEmittedToBrokerProcessor = ReplayProcessor.create();
-            request.messages().doOnNext(messagesEmittedToBrokerProcessor::onNext).test().awaitDone(3, TimeUnit.SECONDS).assertComplete();
-
-            await()
-                .atMost(10, TimeUnit.SECONDS)
-                .untilAsserted(() -> wiremock.verify(recordsCount, getRequestedFor(urlPathEqualTo("/"))));
+            wiremock.verify(
+                getRequestedFor(urlPathEqualTo("/")).withHeader("header1", equalTo("value1")).withHeader("header2", equalTo("value2"))
+            );
         }
-    }
-
-    @Nested
-    class OnMessageResponse {
 
-        @ParameterizedTest
-        @ValueSource(ints = { 1, 5, 10 })
-        void should_make_http_calls_for_kafka_messages(int recordsCount) {
+        @Test
+        void should_not_add_null_header_to_callout_call() {
             wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
 
-            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
-            final KafkaMessageResponseStub response = new KafkaMessageResponseStub();
-            when(ctx.response()).thenReturn(response);
-            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
-            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
-            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
-            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
-
-            List<KafkaMessage> messages = new ArrayList<>();
-            for (int i = 0; i < recordsCount; i++) {
-                KafkaMessage stubMessage = new KafkaMessageStub("test_" + i);
-                messages.add(stubMessage);
-            }
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
 
-            policy(CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).build())
-                .onMessageResponse(ctx)
-                .doOnComplete(() -> response.messages(Flowable.fromIterable(messages)))
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .headers(
+                        List.of(
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header1", "value1"),
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header2", "value2"),
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header3", null),
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header4", "{#context.attributes['unknown']}")
+                        )
+                    )
+                    .build()
+            )
+                .onResponse(ctx)
                 .test()
-                .awaitDone(3, TimeUnit.SECONDS)
+                .awaitDone(30, TimeUnit.SECONDS)
                 .assertComplete();
 
-            ReplayProcessor<KafkaMessage> messagesEmittedToBrokerProcessor = ReplayProcessor.create();
-            response.messages().doOnNext(messagesEmittedToBrokerProcessor::onNext).test().awaitDone(3, TimeUnit.SECONDS).assertComplete();
+            wiremock.verify(
+                getRequestedFor(urlPathEqualTo("/")).withHeader("header1", equalTo("value1")).withHeader("header2", equalTo("value2"))
+            );
+        }
 
-            await()
-                .atMost(10, TimeUnit.SECONDS)
+        @Test
+        void should_send_static_body_to_callout_call() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            String body = "static body";
+            policy(CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).body(body).build())
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            wiremock.verify(
+                getRequestedFor(urlPathEqualTo("/"))
+                    .withRequestBody(equalTo(body))
+                    .withoutHeader("Transfer-Encoding")
+                    .withHeader("Content-Length", equalTo(String.valueOf(body.length())))
+            );
+        }
+
+        @Test
+        void should_send_dynamic_body_to_callout_call() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            String body = "dynamic body";
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().header("X-Body", body).build())
+                .build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .body("{#request.headers['X-Body'][0]}")
+                    .build()
+            )
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            wiremock.verify(
+                getRequestedFor(urlPathEqualTo("/"))
+                    .withRequestBody(equalTo(body))
+                    .withoutHeader("Transfer-Encoding")
+                    .withHeader("Content-Length", equalTo(String.valueOf(body.length())))
+            );
+        }
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        void should_add_variables_in_context_when_callout_succeed(boolean exitOnError) {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .exitOnError(exitOnError)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .variables(
+                        List.of(
+                            new Variable("callout1", "static"),
+                            new Variable("callout2", "{#jsonPath(#calloutResponse.content, '$.key')}")
+                        )
+                    )
+                    .build()
+            )
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            assertThat(ctx.getAttributes()).containsEntry("callout1", "static").containsEntry("callout2", "a-value");
+        }
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        void should_call_and_do_nothing_when_no_variables_defined(boolean exitOnError) {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .exitOnError(exitOnError)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .build()
+            )
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            assertThat(ctx.getAttributes()).isEmpty();
+            wiremock.verify(getRequestedFor(urlPathEqualTo("/")));
+        }
+
+        @Test
+        void should_interrupt_when_exitOnError_and_use_default_message_when_no_error_content_defined() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(400).withBody("Bad request")));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .exitOnError(true)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .build()
+            )
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertError(e -> {
+                    assertThat(e)
+                        .isInstanceOf(InterruptionFailureException.class)
+                        .extracting(error -> ((InterruptionFailureException) error).getExecutionFailure())
+                        .extracting(ExecutionFailure::statusCode, ExecutionFailure::key, ExecutionFailure::message)
+                        .containsExactly(500, CALLOUT_EXIT_ON_ERROR, "Request is terminated.");
+                    return true;
+                });
+        }
+
+        @Test
+        void should_interrupt_when_exitOnError_and_use_provided_configuration() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(400).withBody("Bad request")));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .exitOnError(true)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .errorStatusCode(502)
+                    .errorContent("Error: {#calloutResponse.content}")
+                    .build()
+            )
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertError(e -> {
+                    assertThat(e)
+                        .isInstanceOf(InterruptionFailureException.class)
+                        .extracting(error -> ((InterruptionFailureException) error).getExecutionFailure())
+                        .extracting(ExecutionFailure::statusCode, ExecutionFailure::key, ExecutionFailure::message)
+                        .containsExactly(502, CALLOUT_EXIT_ON_ERROR, "Error: Bad request");
+                    return true;
+                });
+        }
+
+        @ParameterizedTest
+        @ValueSource(booleans = { true, false })
+        void should_call_and_do_nothing_when_fire_and_forget_defined(boolean exitOnError) {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .fireAndForget(true)
+                    .variables(
+                        List.of(
+                            new Variable("callout1", "static"),
+                            new Variable("callout2", "{#jsonPath(#calloutResponse.content, '$.key')}")
+                        )
+                    )
+                    .exitOnError(exitOnError)
+                    .errorCondition("{#calloutResponse.status != 200}")
+                    .build()
+            )
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            assertThat(ctx.getAttributes()).isEmpty();
+            await()
+                .atMost(10, TimeUnit.SECONDS)
+                .untilAsserted(() -> wiremock.verify(getRequestedFor(urlPathEqualTo("/"))));
+        }
+
+        @Test
+        void should_call_https_target() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().header("X-Header2", "value2").build())
+                .build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(true))
+                    .method(HttpMethod.GET)
+                    .headers(
+                        List.of(
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header1", "value1"),
+                            new io.gravitee.policy.callout.configuration.HttpHeader("header2", "{#request.headers['X-Header2'][0]}")
+                        )
+                    )
+                    .build()
+            )
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            wiremock.verify(
+                getRequestedFor(urlPathEqualTo("/")).withHeader("header1", equalTo("value1")).withHeader("header2", equalTo("value2"))
+            );
+        }
+
+        @Test
+        void should_call_target_using_system_proxy() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Vertx.class, Vertx.vertx())
+                .withComponent(io.gravitee.node.api.configuration.Configuration.class, nodeConfiguration)
+                .request(aRequest().header("X-Header2", "value2").build())
+                .build();
+
+            policy(CalloutHttpPolicyConfiguration.builder().useSystemProxy(true).url(targetUrl(false)).method(HttpMethod.GET).build())
+                .onResponse(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            wiremock.verify(getRequestedFor(urlPathEqualTo("/")));
+
+            verify(nodeConfiguration).getProperty("system.proxy.port");
+            verify(nodeConfiguration).getProperty("system.proxy.type");
+            verify(nodeConfiguration).getProperty("system.proxy.host");
+            verify(nodeConfiguration).getProperty("system.proxy.username");
+            verify(nodeConfiguration).getProperty("system.proxy.password");
+        }
+    }
+
+    @Nested
+    class OnMessageRequest {
+
+        @ParameterizedTest
+        @ValueSource(ints = { 1, 5, 10 })
+        void should_make_http_calls_for_kafka_messages(int recordsCount) {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
+            when(ctx.request()).thenReturn(request);
+            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = new ArrayList<>();
+            for (int i = 0; i < recordsCount; i++) {
+                KafkaMessage stubMessage = new KafkaMessageStub("test_" + i);
+                messages.add(stubMessage);
+            }
+
+            policy(CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).build())
+                .onMessageRequest(ctx)
+                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            ReplayProcessor<KafkaMessage> messagesEmittedToBrokerProcessor = ReplayProcessor.create();
+            request.messages().doOnNext(messagesEmittedToBrokerProcessor::onNext).test().awaitDone(3, TimeUnit.SECONDS).assertComplete();
+
+            await()
+                .atMost(10, TimeUnit.SECONDS)
+                .untilAsserted(() -> wiremock.verify(recordsCount, getRequestedFor(urlPathEqualTo("/"))));
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = MessageOrdering.class, names = { "GLOBAL", "PARTITION" })
+        void should_make_concurrent_http_calls_and_keep_kafka_messages_order(MessageOrdering ordering) {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withUniformRandomDelay(0, 100)));
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
+            when(ctx.request()).thenReturn(request);
+            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                messages.add(new KafkaMessageStub("test_" + i));
+            }
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .kafka(KafkaOptions.builder().concurrency(5).ordering(ordering).build())
+                    .build()
+            )
+                .onMessageRequest(ctx)
+                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            request.messages().test().awaitDone(10, TimeUnit.SECONDS).assertComplete().assertValueSequence(messages);
+
+            wiremock.verify(10, getRequestedFor(urlPathEqualTo("/")));
+        }
+
+        @ParameterizedTest
+        @EnumSource(MessageOrdering.class)
+        void should_keep_variables_per_message_with_concurrent_http_calls(MessageOrdering ordering) {
+            for (int i = 0; i < 10; i++) {
+                wiremock.stubFor(
+                    post(urlEqualTo("/"))
+                        .withRequestBody(equalTo("test_" + i))
+                        .willReturn(aResponse().withStatus(200).withBody("{\"key\": " + i + "}").withUniformRandomDelay(0, 100))
+                );
+            }
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
+            when(ctx.request()).thenReturn(request);
+            when(ctx.getTemplateEngine(any())).thenAnswer(invocation -> TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                messages.add(new KafkaMessageStub("test_" + i));
+            }
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .bodySource(BodySource.INCOMING)
+                    .variables(List.of(new Variable("my-attribute", "{#jsonPath(#calloutResponse.content, '$.key')}")))
+                    .kafka(KafkaOptions.builder().concurrency(5).ordering(ordering).build())
+                    .build()
+            )
+                .onMessageRequest(ctx)
+                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            request.messages().test().awaitDone(10, TimeUnit.SECONDS).assertComplete().assertValueCount(10);
+
+            for (int i = 0; i < messages.size(); i++) {
+                assertThat(messages.get(i).<Object>attribute("my-attribute")).isEqualTo(i);
+            }
+            verify(ctx, never()).setAttribute(eq("my-attribute"), any());
+        }
+
+        @Test
+        void should_make_one_http_call_per_batch_of_kafka_messages() {
+            wiremock.stubFor(
+                post(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("[{\"key\": 0}, {\"key\": 1}, {\"key\": 2}]"))
+            );
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
+            when(ctx.request()).thenReturn(request);
+            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = List.of(
+                new KafkaMessageStub("test_0"),
+                new KafkaMessageStub("test_1"),
+                new KafkaMessageStub("test_2")
+            );
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .kafka(KafkaOptions.builder().batchEnabled(true).batchMaxMessages(10).batchLingerMs(50).build())
+                    .build()
+            )
+                .onMessageRequest(ctx)
+                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            request.messages().test().awaitDone(10, TimeUnit.SECONDS).assertComplete().assertValueSequence(messages);
+
+            wiremock.verify(
+                1,
+                postRequestedFor(urlPathEqualTo("/"))
+                    .withHeader("Content-Type", equalTo("application/json"))
+                    .withRequestBody(equalToJson("[\"test_0\", \"test_1\", \"test_2\"]"))
+            );
+        }
+
+        @Test
+        void should_set_variables_on_each_message_of_a_batch() {
+            wiremock.stubFor(
+                post(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("[{\"key\": 0}, {\"key\": 1}, {\"key\": 2}]"))
+            );
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
+            when(ctx.request()).thenReturn(request);
+            when(ctx.getTemplateEngine(any())).thenAnswer(invocation -> TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = List.of(
+                new KafkaMessageStub("test_0"),
+                new KafkaMessageStub("test_1"),
+                new KafkaMessageStub("test_2")
+            );
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .variables(List.of(new Variable("my-attribute", "{#jsonPath(#calloutResponse.content, '$.key')}")))
+                    .kafka(KafkaOptions.builder().batchEnabled(true).batchMaxMessages(10).batchLingerMs(50).build())
+                    .build()
+            )
+                .onMessageRequest(ctx)
+                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            request.messages().test().awaitDone(10, TimeUnit.SECONDS).assertComplete().assertValueSequence(messages);
+
+            for (int i = 0; i < messages.size(); i++) {
+                assertThat(messages.get(i).<Object>attribute("my-attribute")).isEqualTo(i);
+            }
+            verify(ctx, never()).setAttribute(eq("my-attribute"), any());
+        }
+
+        @Test
+        void should_split_kafka_message_batches_by_max_messages() {
+            wiremock.stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("[{\"key\": 0}, {\"key\": 1}]")));
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
+            when(ctx.request()).thenReturn(request);
+            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                messages.add(new KafkaMessageStub("test_" + i));
+            }
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .kafka(KafkaOptions.builder().batchEnabled(true).batchMaxMessages(2).batchLingerMs(1000).build())
+                    .build()
+            )
+                .onMessageRequest(ctx)
+                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            request.messages().test().awaitDone(10, TimeUnit.SECONDS).assertComplete().assertValueCount(4);
+
+            wiremock.verify(2, postRequestedFor(urlPathEqualTo("/")));
+        }
+
+        @Test
+        void should_slow_down_kafka_message_batches_to_a_slow_target() {
+            wiremock.stubFor(post(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withFixedDelay(5)));
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageRequestStub request = new KafkaMessageRequestStub();
+            when(ctx.request()).thenReturn(request);
+            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                messages.add(new KafkaMessageStub("test_" + i));
+            }
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.POST)
+                    .kafka(KafkaOptions.builder().batchEnabled(true).batchMaxMessages(1).batchLingerMs(1).build())
+                    .build()
+            )
+                .onMessageRequest(ctx)
+                .doOnComplete(() -> request.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            request.messages().test().awaitDone(30, TimeUnit.SECONDS).assertComplete().assertValueSequence(messages);
+
+            wiremock.verify(300, postRequestedFor(urlPathEqualTo("/")));
+        }
+    }
+
+    @Nested
+    class OnMessageResponse {
+
+        @ParameterizedTest
+        @ValueSource(ints = { 1, 5, 10 })
+        void should_make_http_calls_for_kafka_messages(int recordsCount) {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withBody("{\"key\": \"a-value\"}")));
+
+            KafkaMessageExecutionContext ctx = mock(KafkaMessageExecutionContext.class);
+            final KafkaMessageResponseStub response = new KafkaMessageResponseStub();
+            when(ctx.response()).thenReturn(response);
+            when(ctx.getTemplateEngine(any())).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getTemplateEngine()).thenReturn(TemplateEngine.templateEngine());
+            when(ctx.getComponent(Vertx.class)).thenReturn(Vertx.vertx());
+            when(ctx.getTracer()).thenReturn(mock(Tracer.class));
+
+            List<KafkaMessage> messages = new ArrayList<>();
+            for (int i = 0; i < recordsCount; i++) {
+                KafkaMessage stubMessage = new KafkaMessageStub("test_" + i);
+                messages.add(stubMessage);
+            }
+
+            policy(CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).build())
+                .onMessageResponse(ctx)
+                .doOnComplete(() -> response.messages(Flowable.fromIterable(messages)))
+                .test()
+                .awaitDone(3, TimeUnit.SECONDS)
+                .assertComplete();
+
+            ReplayProcessor<KafkaMessage> messagesEmittedToBrokerProcessor = ReplayProcessor.create();
+            response.messages().doOnNext(messagesEmittedToBrokerProcessor::onNext).test().awaitDone(3, TimeUnit.SECONDS).assertComplete();
+
+            await()
+                .atMost(10, TimeUnit.SECONDS)
                 .untilAsserted(() -> wiremock.verify(recordsCount, getRequestedFor(urlPathEqualTo("/"))));
         }
     }
@@ -837,6 +1668,103 @@ class CalloutHttpPolicyV4Test {
             assertThat(poolOptionsCaptor.getValue().getHttp1MaxSize()).isEqualTo(10);
         }
 
+        @Test
+        void should_configure_h2c_with_prior_knowledge() {
+            var mockVertx = mock(Vertx.class);
+            var mockHttpClient = mock(io.vertx.rxjava3.core.http.HttpClientAgent.class);
+            var optionsCaptor = ArgumentCaptor.forClass(io.vertx.core.http.HttpClientOptions.class);
+            var poolOptionsCaptor = ArgumentCaptor.forClass(PoolOptions.class);
+            when(mockVertx.createHttpClient(optionsCaptor.capture(), poolOptionsCaptor.capture())).thenReturn(mockHttpClient);
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, mockVertx).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url("http://localhost/")
+                    .method(HttpMethod.GET)
+                    .httpOptions(
+                        HttpClientOptions.builder().protocol(HttpProtocol.H2C).http2MaxConnections(2).http2MultiplexingLimit(100).build()
+                    )
+                    .build()
+            ).getHttpClient(ctx);
+
+            assertThat(optionsCaptor.getValue().getProtocolVersion()).isEqualTo(HttpVersion.HTTP_2);
+            assertThat(optionsCaptor.getValue().isHttp2ClearTextUpgrade()).isFalse();
+            assertThat(optionsCaptor.getValue().getHttp2MultiplexingLimit()).isEqualTo(100);
+            assertThat(poolOptionsCaptor.getValue().getHttp2MaxSize()).isEqualTo(2);
+        }
+
+        @Test
+        void should_configure_connection_pool_from_configuration() {
+            var mockVertx = mock(Vertx.class);
+            var mockHttpClient = mock(io.vertx.rxjava3.core.http.HttpClientAgent.class);
+            var optionsCaptor = ArgumentCaptor.forClass(io.vertx.core.http.HttpClientOptions.class);
+            var poolOptionsCaptor = ArgumentCaptor.forClass(PoolOptions.class);
+            when(mockVertx.createHttpClient(optionsCaptor.capture(), poolOptionsCaptor.capture())).thenReturn(mockHttpClient);
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, mockVertx).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url("http://localhost/")
+                    .method(HttpMethod.GET)
+                    .httpOptions(
+                        HttpClientOptions.builder()
+                            .maxWaitQueueSize(50)
+                            .keepAliveTimeoutSeconds(30)
+                            .idleTimeoutSeconds(10)
+                            .pipelining(true)
+                            .pipeliningLimit(5)
+                            .maxLifetimeSeconds(300)
+                            .build()
+                    )
+                    .build()
+            ).getHttpClient(ctx);
+
+            var options = optionsCaptor.getValue();
+            assertThat(options.isKeepAlive()).isTrue();
+            assertThat(options.getKeepAliveTimeout()).isEqualTo(30);
+            assertThat(options.getIdleTimeout()).isEqualTo(10);
+            assertThat(options.getIdleTimeoutUnit()).isEqualTo(TimeUnit.SECONDS);
+            assertThat(options.isPipelining()).isTrue();
+            assertThat(options.getPipeliningLimit()).isEqualTo(5);
+            assertThat(options.getMaxLifetime()).isEqualTo(300);
+            assertThat(poolOptionsCaptor.getValue().getMaxWaitQueueSize()).isEqualTo(50);
+        }
+
+        @Test
+        void should_call_h2c_target_with_prior_knowledge() {
+            var vertx = Vertx.vertx();
+            var protocolVersion = new AtomicReference<HttpVersion>();
+            var server = vertx
+                .createHttpServer(new HttpServerOptions().setHttp2ClearTextEnabled(true))
+                .requestHandler(request -> {
+                    protocolVersion.set(request.version());
+                    request.response().end("{\"key\": \"a-value\"}");
+                })
+                .rxListen(0)
+                .blockingGet();
+
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, vertx).request(aRequest().build()).build();
+
+            policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url("http://localhost:" + server.actualPort() + "/")
+                    .method(HttpMethod.GET)
+                    .httpOptions(HttpClientOptions.builder().protocol(HttpProtocol.H2C).build())
+                    .variables(List.of(new Variable("callout", "{#jsonPath(#calloutResponse.content, '$.key')}")))
+                    .build()
+            )
+                .onRequest(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertComplete();
+
+            assertThat(protocolVersion.get()).isEqualTo(HttpVersion.HTTP_2);
+            assertThat(ctx.getAttributes()).containsEntry("callout", "a-value");
+            server.rxClose().blockingAwait();
+        }
+
         @Test
         void should_set_max_pool_size_default_value() {
             var mockVertx = mock(Vertx.class);
@@ -861,6 +1789,151 @@ class CalloutHttpPolicyV4Test {
         return "http://localhost:" + wiremock.getPort() + "/";
     }
 
+    @Nested
+    class Close {
+
+        @Test
+        void should_wait_for_fire_and_forget_callouts_before_releasing_http_client() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withFixedDelay(500)));
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+            var policy = policy(
+                CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).fireAndForget(true).build()
+            );
+
+            policy.onRequest(ctx).test().awaitDone(30, TimeUnit.SECONDS).assertComplete();
+            await().atMost(10, TimeUnit.SECONDS).until(() -> policy.inFlight() == 1);
+
+            var drain = policy.drain().test();
+            drain.assertNotComplete();
+
+            drain.awaitDone(10, TimeUnit.SECONDS).assertComplete();
+            assertThat(policy.inFlight()).isZero();
+            wiremock.verify(1, getRequestedFor(urlPathEqualTo("/")));
+        }
+
+        @Test
+        void should_release_http_client_when_drain_timeout_elapses() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200).withFixedDelay(5000)));
+            var ctx = new ExecutionContextBuilder().withComponent(Vertx.class, Vertx.vertx()).request(aRequest().build()).build();
+            var policy = policy(
+                CalloutHttpPolicyConfiguration.builder()
+                    .url(targetUrl(false))
+                    .method(HttpMethod.GET)
+                    .fireAndForget(true)
+                    .httpOptions(HttpClientOptions.builder().drainTimeoutMs(100).build())
+                    .build()
+            );
+
+            policy.onRequest(ctx).test().awaitDone(30, TimeUnit.SECONDS).assertComplete();
+            await().atMost(10, TimeUnit.SECONDS).until(() -> policy.inFlight() == 1);
+            int openClients = CalloutHttpClientRegistry.shared().openClients();
+
+            policy.drain().test().awaitDone(2, TimeUnit.SECONDS).assertComplete();
+
+            assertThat(CalloutHttpClientRegistry.shared().openClients()).isEqualTo(openClients - 1);
+        }
+
+        @Test
+        void should_reject_callouts_once_closing() {
+            wiremock.stubFor(get(urlEqualTo("/")).willReturn(aResponse().withStatus(200)));
+            var ctx = new ExecutionContextBuilder()
+                .withComponent(Node.class, mock(Node.class))
+                .withComponent(Vertx.class, Vertx.vertx())
+                .request(aRequest().build())
+                .build();
+            var policy = policy(
+                CalloutHttpPolicyConfiguration.builder().url(targetUrl(false)).method(HttpMethod.GET).exitOnError(true).build()
+            );
+            int openClients = CalloutHttpClientRegistry.shared().openClients();
+
+            policy.drain().test().awaitDone(2, TimeUnit.SECONDS).assertComplete();
+
+            policy
+                .onRequest(ctx)
+                .test()
+                .awaitDone(30, TimeUnit.SECONDS)
+                .assertError(e -> {
+                    assertThat(e).isInstanceOf(InterruptionFailureException.class);
+                    assertThat(((InterruptionFailureException) e).getExecutionFailure().message()).contains("closing");
+                    return true;
+                });
+            assertThat(CalloutHttpClientRegistry.shared().openClients()).isEqualTo(openClients);
+            wiremock.verify(0, getRequestedFor(urlPathEqualTo("/")));
+        }
+    }
+
+    @Nested
+    class Spool {
+
+        @TempDir
+        Path root;
+
+        @Test
+        void should_read_spool_root_from_node_configuration() {
+            when(nodeConfiguration.getProperty(CalloutHttpPolicy.SPOOL_DIRECTORY_PROPERTY)).thenReturn(root.toString());
+
+            assertThat(CalloutHttpPolicy.spoolRoot(nodeConfiguration)).isEqualTo(root);
+        }
+
+        @Test
+        void should_name_default_spool_directory_after_method_and_url() {
+            var configuration = CalloutHttpPolicyConfiguration.builder().url("http://localhost/").method(HttpMethod.POST).build();
+
+            // Stable across JVMs, unlike hash codes of enums.
+            assertThat(CalloutHttpPolicy.spoolDirectory(root, new SpoolOptions(), configuration)).isEqualTo(
+                root.resolve("777ac3be-e64e-3354-a408-1b5dfb5a8956")
+            );
+        }
+
+        @Test
+        void should_recover_spooled_callouts_from_default_directory_with_a_new_configuration() {
+            var spool = CalloutSpool.open(
+                CalloutHttpPolicy.spoolDirectory(
+                    root,
+                    new SpoolOptions(),
+                    CalloutHttpPolicyConfiguration.builder().url("http://localhost/").method(HttpMethod.POST).build()
+                ),
+                4096,
+                1024
+            );
+            spool.append("callout".getBytes(StandardCharsets.UTF_8));
+            spool.release();
+
+            var reopened = CalloutSpool.open(
+                CalloutHttpPolicy.spoolDirectory(
+                    root,
+                    new SpoolOptions(),
+                    CalloutHttpPolicyConfiguration.builder().url("http://localhost/").method(HttpMethod.POST).build()
+                ),
+                4096,
+                1024
+            );
+
+            assertThat(reopened.pending()).isEqualTo(1);
+            reopened.release();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = { "/etc", "../outside", "spool/../.." })
+        void should_reject_spool_directory_outside_spool_root(String directory) {
+            var configuration = CalloutHttpPolicyConfiguration.builder().url("http://localhost/").method(HttpMethod.POST).build();
+            var spoolOptions = SpoolOptions.builder().directory(directory).build();
+
+            Assertions.assertThatThrownBy(() -> CalloutHttpPolicy.spoolDirectory(root, spoolOptions, configuration)).isInstanceOf(
+                IllegalArgumentException.class
+            );
+        }
+
+        @Test
+        void should_resolve_configured_spool_directory_within_spool_root() {
+            var configuration = CalloutHttpPolicyConfiguration.builder().url("http://localhost/").method(HttpMethod.POST).build();
+
+            assertThat(CalloutHttpPolicy.spoolDirectory(root, SpoolOptions.builder().directory("orders").build(), configuration)).isEqualTo(
+                root.resolve("orders")
+            );
+        }
+    }
+
     CalloutHttpPolicy policy(CalloutHttpPolicyConfiguration configuration) {
         return new CalloutHttpPolicy(configuration);
     }
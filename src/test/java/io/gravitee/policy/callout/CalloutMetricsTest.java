@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.gateway.reactive.api.context.ContextAttributes;
+import io.gravitee.gateway.reactive.api.context.base.BaseExecutionContext;
+import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.http.RequestOptions;
+import java.net.ConnectException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CalloutMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CalloutMetrics metrics = new CalloutMetrics(registry, false);
+    private final RequestOptions requestOpts = new RequestOptions().setAbsoluteURI("http://target.example.com:8080/path");
+
+    @Test
+    void should_tag_metrics_with_api_of_execution() {
+        var ctx = mock(BaseExecutionContext.class);
+        assertThat(CalloutMetrics.api(ctx)).isEqualTo("unknown");
+
+        when(ctx.<Object>getAttribute(ContextAttributes.ATTR_API)).thenReturn("my-api");
+        assertThat(CalloutMetrics.api(ctx)).isEqualTo("my-api");
+    }
+
+    @Test
+    void should_record_callout_duration_by_status_class() {
+        metrics.recordResponse("my-api", requestOpts, TimeUnit.MILLISECONDS.toNanos(20), 503);
+
+        var timer = registry
+            .get(CalloutMetrics.DURATION)
+            .tags("api", "my-api", "target", "target.example.com", "outcome", "5xx", "exception", "none")
+            .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(20);
+    }
+
+    @Test
+    void should_record_callout_failure_with_its_cause() {
+        metrics.recordFailure("my-api", requestOpts, 1000, new CalloutException(new ConnectException("refused")));
+
+        assertThat(registry.get(CalloutMetrics.DURATION).tags("outcome", "error", "exception", "ConnectException").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void should_publish_percentile_histograms_only_when_enabled() {
+        var histogramRegistry = new SimpleMeterRegistry();
+        metrics.recordResponse("my-api", requestOpts, 1000, 200);
+        new CalloutMetrics(histogramRegistry, true).recordResponse("my-api", requestOpts, 1000, 200);
+
+        assertThat(registry.get(CalloutMetrics.DURATION).timer().takeSnapshot().histogramCounts()).isEmpty();
+        assertThat(histogramRegistry.get(CalloutMetrics.DURATION).timer().takeSnapshot().histogramCounts()).isNotEmpty();
+    }
+
+    @Test
+    void should_record_targets_beyond_the_limit_as_other() {
+        for (int i = 0; i <= CalloutMetrics.MAX_TARGETS; i++) {
+            metrics.recordResponse("my-api", new RequestOptions().setAbsoluteURI("http://target-" + i + ".example.com/path"), 1000, 200);
+        }
+        metrics.recordResponse("my-api", requestOpts, 1000, 200);
+
+        assertThat(registry.find(CalloutMetrics.DURATION).timers()).hasSize(CalloutMetrics.MAX_TARGETS + 1);
+        assertThat(registry.get(CalloutMetrics.DURATION).tags("target", "other").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_record_response_size_and_interruptions() {
+        metrics.recordResponseSize("my-api", requestOpts, 512);
+        metrics.recordInterruption("my-api", "error_condition");
+
+        assertThat(registry.get(CalloutMetrics.RESPONSE_SIZE).summary().totalAmount()).isEqualTo(512);
+        assertThat(registry.get(CalloutMetrics.INTERRUPTIONS).tags("reason", "error_condition").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_remove_policy_gauges_when_closed() {
+        var policy = new CalloutHttpPolicy(
+            CalloutHttpPolicyConfiguration.builder().url("http://localhost").method(HttpMethod.GET).fireAndForget(true).build()
+        );
+
+        metrics.registerGauges("my-api", policy);
+        assertThat(registry.get(CalloutMetrics.IN_FLIGHT).tags("api", "my-api").gauge().value()).isZero();
+        assertThat(registry.find(CalloutMetrics.FIRE_AND_FORGET_QUEUED).gauge()).isNotNull();
+
+        metrics.close();
+
+        assertThat(registry.find(CalloutMetrics.IN_FLIGHT).gauge()).isNull();
+        assertThat(registry.find(CalloutMetrics.FIRE_AND_FORGET_QUEUED).gauge()).isNull();
+    }
+
+    @Test
+    void should_share_gauges_between_policy_instances_of_an_api() {
+        var configuration = CalloutHttpPolicyConfiguration.builder().url("http://localhost").method(HttpMethod.GET).build();
+        var redeployed = new CalloutMetrics(registry, false);
+
+        metrics.registerGauges("my-api", new CalloutHttpPolicy(configuration));
+        redeployed.registerGauges("my-api", new CalloutHttpPolicy(configuration));
+        assertThat(registry.find(CalloutMetrics.IN_FLIGHT).gauges()).hasSize(1);
+
+        metrics.close();
+        assertThat(registry.get(CalloutMetrics.IN_FLIGHT).tags("api", "my-api").gauge().value()).isZero();
+
+        redeployed.close();
+        assertThat(registry.find(CalloutMetrics.IN_FLIGHT).gauge()).isNull();
+    }
+
+    @Test
+    void should_remove_meters_when_last_policy_instance_of_api_is_closed() {
+        var configuration = CalloutHttpPolicyConfiguration.builder().url("http://localhost").method(HttpMethod.GET).build();
+        var redeployed = new CalloutMetrics(registry, false);
+        metrics.registerGauges("my-api", new CalloutHttpPolicy(configuration));
+        redeployed.registerGauges("my-api", new CalloutHttpPolicy(configuration));
+
+        metrics.recordResponse("my-api", requestOpts, 1000, 200);
+        metrics.recordConnectionWait("my-api", requestOpts, 1000);
+        metrics.recordInterruption("my-api", "timeout");
+        redeployed.recordResponse("my-api", requestOpts, 1000, 200);
+
+        metrics.close();
+        assertThat(registry.get(CalloutMetrics.DURATION).timer().count()).isEqualTo(2);
+        assertThat(registry.find(CalloutMetrics.INTERRUPTIONS).counter()).isNotNull();
+
+        redeployed.close();
+        assertThat(registry.find(CalloutMetrics.DURATION).timer()).isNull();
+        assertThat(registry.find(CalloutMetrics.CONNECTION_WAIT).timer()).isNull();
+        assertThat(registry.find(CalloutMetrics.RESPONSE_SIZE).summary()).isNull();
+        assertThat(registry.find(CalloutMetrics.INTERRUPTIONS).counter()).isNull();
+    }
+
+    @Test
+    void should_remove_meters_when_closed_without_gauges() {
+        metrics.recordResponse("my-api", requestOpts, 1000, 200);
+
+        metrics.close();
+
+        assertThat(registry.getMeters()).isEmpty();
+    }
+}
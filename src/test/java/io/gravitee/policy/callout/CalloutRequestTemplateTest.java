@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.el.TemplateEngine;
+import io.gravitee.policy.callout.configuration.CalloutHttpPolicyConfiguration;
+import io.gravitee.policy.callout.configuration.HttpHeader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CalloutRequestTemplateTest {
+
+    @Test
+    void should_prepare_literal_request_without_evaluating_it() {
+        var templateEngine = mock(TemplateEngine.class);
+        var template = CalloutRequestTemplate.of(
+            CalloutHttpPolicyConfiguration.builder()
+                .url("http://localhost:8080/")
+                .method(HttpMethod.POST)
+                .body("static body")
+                .headers(List.of(new HttpHeader("X-Header", "value"), new HttpHeader("X-Null", null)))
+                .build()
+        );
+
+        assertThat(template.literalRequest()).isNotNull();
+        CalloutUtils.prepareCalloutRequest(templateEngine, template)
+            .test()
+            .assertValue(req -> {
+                assertThat(req.url()).isEqualTo("http://localhost:8080/");
+                assertThat(req.body()).contains("static body");
+                assertThat(req.headerList())
+                    .extracting(HttpHeader::getName, HttpHeader::getValue)
+                    .containsExactly(tuple("X-Header", "value"));
+                return true;
+            });
+        verifyNoInteractions(templateEngine);
+    }
+
+    @Test
+    void should_only_classify_values_holding_expressions_as_dynamic() {
+        var template = CalloutRequestTemplate.of(
+            CalloutHttpPolicyConfiguration.builder()
+                .url("http://localhost:8080/{#request.params['id']}")
+                .method(HttpMethod.GET)
+                .headers(List.of(new HttpHeader("X-Header", "value")))
+                .build()
+        );
+
+        assertThat(template.literalUrl()).isFalse();
+        assertThat(template.literalBody()).isTrue();
+        assertThat(template.literalHeaders()).isTrue();
+        assertThat(template.literalRequest()).isNull();
+    }
+}
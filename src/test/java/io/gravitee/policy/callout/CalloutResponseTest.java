@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.gravitee.gateway.api.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CalloutResponseTest {
+
+    @Test
+    void should_parse_json_content_once() {
+        var response = new CalloutResponse(200, HttpHeaders.create(), "{\"key\": \"value\"}");
+
+        assertThat(response.getJson()).isSameAs(response.getJson());
+        assertThat(response.getJson()).isEqualTo(Map.of("key", "value"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_expose_read_only_json_content() {
+        var response = new CalloutResponse(200, HttpHeaders.create(), "{\"items\": [{\"key\": 1}]}");
+
+        var json = (Map<String, Object>) response.getJson();
+        var items = (List<Object>) json.get("items");
+        var item = (Map<String, Object>) items.get(0);
+
+        assertThatThrownBy(() -> json.put("other", "value")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> items.add("value")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> item.put("key", 2)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void should_return_null_json_for_invalid_content() {
+        assertThat(new CalloutResponse(200, HttpHeaders.create(), "not json").getJson()).isNull();
+    }
+}
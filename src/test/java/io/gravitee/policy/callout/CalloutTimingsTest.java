@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.gravitee.node.api.opentelemetry.Span;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CalloutTimingsTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private final Span span = mock(Span.class);
+
+    @Test
+    void should_add_the_duration_of_each_phase_to_the_span() {
+        var timings = new CalloutTimings(clock::get);
+        advance(5);
+        timings.connectionAcquired();
+        timings.requestSent(128);
+        advance(40);
+        timings.responseReceived();
+        advance(12);
+        timings.bodyRead(2048);
+
+        timings.applyTo(span);
+
+        verify(span).withAttribute(CalloutTimings.CONNECTION_ACQUIRE, "5.000");
+        verify(span).withAttribute(CalloutTimings.TIME_TO_FIRST_BYTE, "40.000");
+        verify(span).withAttribute(CalloutTimings.BODY_DOWNLOAD, "12.000");
+        verify(span).withAttribute(CalloutTimings.REQUEST_BODY_SIZE, "128");
+        verify(span).withAttribute(CalloutTimings.RESPONSE_BODY_SIZE, "2048");
+    }
+
+    @Test
+    void should_only_add_the_phases_reached() {
+        var timings = new CalloutTimings(clock::get);
+        advance(3);
+        timings.connectionAcquired();
+
+        timings.applyTo(span);
+
+        verify(span).withAttribute(CalloutTimings.CONNECTION_ACQUIRE, "3.000");
+        verify(span, never()).withAttribute(eq(CalloutTimings.TIME_TO_FIRST_BYTE), anyString());
+        verify(span, never()).withAttribute(eq(CalloutTimings.BODY_DOWNLOAD), anyString());
+    }
+
+    @Test
+    void should_not_add_anything_before_a_connection_is_acquired() {
+        new CalloutTimings(clock::get).applyTo(span);
+
+        verifyNoInteractions(span);
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
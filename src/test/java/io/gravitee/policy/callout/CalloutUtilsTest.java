@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class CalloutUtilsTest {
+
+    /**
+     * Pins the internal Vert.x API used to wrap a Netty buffer, which has no public equivalent.
+     */
+    @Test
+    void should_share_memory_of_netty_buffer() {
+        ByteBuf byteBuf = Unpooled.copiedBuffer("body", StandardCharsets.UTF_8);
+        Buffer body = mock(Buffer.class);
+        doReturn(byteBuf).when(body).getNativeBuffer();
+
+        var buffer = CalloutUtils.toVertxBuffer(body);
+        byteBuf.setByte(0, 'B');
+
+        assertThat(buffer.toString()).isEqualTo("Body");
+    }
+
+    @Test
+    void should_copy_bytes_of_other_buffers() {
+        Buffer body = mock(Buffer.class);
+        doReturn("body".getBytes(StandardCharsets.UTF_8)).when(body).getBytes();
+
+        assertThat(CalloutUtils.toVertxBuffer(body).toString()).isEqualTo("body");
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.policy.callout.configuration.FireAndForgetOptions;
+import io.gravitee.policy.callout.configuration.HttpHeader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class FireAndForgetBatcherTest {
+
+    private final List<FireAndForgetBatcher.Batch> opened = new ArrayList<>();
+    private final FireAndForgetBatcher batcher = new FireAndForgetBatcher(
+        FireAndForgetOptions.builder().batchMaxCount(3).batchMaxBytes(10).build()
+    );
+
+    @Test
+    void should_flush_batch_once_max_count_is_reached() {
+        assertThat(batcher.add(request("a", "1"), opened::add)).isEmpty();
+        assertThat(batcher.add(request("a", "2"), opened::add)).isEmpty();
+
+        var full = batcher.add(request("a", "3"), opened::add);
+
+        assertThat(full).singleElement().satisfies(batch -> assertThat(batch.requests()).hasSize(3));
+        assertThat(opened).hasSize(1);
+        assertThat(batcher.remove(opened.get(0))).isFalse();
+    }
+
+    @Test
+    void should_flush_batch_before_it_exceeds_max_bytes() {
+        batcher.add(request("a", "123456"), opened::add);
+
+        var full = batcher.add(request("a", "12345"), opened::add);
+
+        assertThat(full).singleElement().satisfies(batch -> assertThat(batch.requests()).hasSize(1));
+        assertThat(opened).hasSize(2);
+        assertThat(batcher.removeAll()).singleElement().satisfies(batch -> assertThat(batch.requests()).hasSize(1));
+    }
+
+    @Test
+    void should_batch_requests_by_url_and_header_values() {
+        batcher.add(request("a", "1"), opened::add);
+        batcher.add(request("b", "2"), opened::add);
+        batcher.add(request("a", "3"), opened::add);
+
+        assertThat(opened).hasSize(2);
+        assertThat(batcher.remove(opened.get(0))).isTrue();
+        assertThat(opened.get(0).requests()).hasSize(2);
+    }
+
+    private CalloutHttpPolicy.Req request(String headerValue, String body) {
+        return new CalloutHttpPolicy.Req("http://localhost/", Optional.of(body), List.of(new HttpHeader("X-Header", headerValue)));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.policy.callout.configuration.FireAndForgetOptions;
+import io.gravitee.policy.callout.configuration.FireAndForgetOverflow;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.subjects.CompletableSubject;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FireAndForgetDispatcherTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<CompletableSubject> callouts = new ArrayList<>();
+
+    @Test
+    void should_queue_callouts_beyond_max_in_flight() {
+        var dispatcher = dispatcher(FireAndForgetOverflow.DROP_NEWEST);
+
+        dispatcher.dispatch(() -> callout("1")).test().assertComplete();
+        dispatcher.dispatch(() -> callout("2")).test().assertComplete();
+
+        assertThat(started).containsExactly("1");
+        assertThat(dispatcher.inFlight()).isEqualTo(1);
+        assertThat(dispatcher.queued()).isEqualTo(1);
+
+        callouts.get(0).onComplete();
+
+        assertThat(started).containsExactly("1", "2");
+        assertThat(dispatcher.queued()).isZero();
+    }
+
+    @Test
+    void should_drop_newest_callout_when_queue_is_full() {
+        var dispatcher = dispatcher(FireAndForgetOverflow.DROP_NEWEST);
+        dispatcher.dispatch(() -> callout("1")).test();
+        dispatcher.dispatch(() -> callout("2")).test();
+
+        dispatcher.dispatch(() -> callout("3")).test().assertComplete();
+        callouts.get(0).onComplete();
+
+        assertThat(started).containsExactly("1", "2");
+        assertThat(dispatcher.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void should_drop_oldest_callout_when_queue_is_full() {
+        var dispatcher = dispatcher(FireAndForgetOverflow.DROP_OLDEST);
+        dispatcher.dispatch(() -> callout("1")).test();
+        dispatcher.dispatch(() -> callout("2")).test();
+
+        dispatcher.dispatch(() -> callout("3")).test().assertComplete();
+        callouts.get(0).onComplete();
+
+        assertThat(started).containsExactly("1", "3");
+        assertThat(dispatcher.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void should_suspend_caller_until_callout_can_be_queued() {
+        var dispatcher = dispatcher(FireAndForgetOverflow.BLOCK);
+        dispatcher.dispatch(() -> callout("1")).test();
+        dispatcher.dispatch(() -> callout("2")).test();
+
+        var blocked = dispatcher.dispatch(() -> callout("3")).test();
+        blocked.assertNotComplete();
+        assertThat(dispatcher.queued()).isEqualTo(2);
+
+        callouts.get(0).onComplete();
+
+        blocked.assertComplete();
+        callouts.get(1).onComplete();
+        assertThat(started).containsExactly("1", "2", "3");
+        assertThat(dispatcher.dropped()).isZero();
+    }
+
+    @Test
+    void should_release_in_flight_slot_when_callout_fails() {
+        var dispatcher = dispatcher(FireAndForgetOverflow.DROP_NEWEST);
+        dispatcher.dispatch(() -> callout("1")).test();
+        dispatcher.dispatch(() -> callout("2")).test();
+
+        callouts.get(0).onError(new IllegalStateException("boom"));
+
+        assertThat(started).containsExactly("1", "2");
+        assertThat(dispatcher.inFlight()).isEqualTo(1);
+    }
+
+    private FireAndForgetDispatcher dispatcher(FireAndForgetOverflow overflow) {
+        return new FireAndForgetDispatcher(FireAndForgetOptions.builder().maxInFlight(1).queueCapacity(1).overflow(overflow).build());
+    }
+
+    private Completable callout(String name) {
+        started.add(name);
+        var callout = CompletableSubject.create();
+        callouts.add(callout);
+        return callout;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyTrackerTest {
+
+    @Test
+    void should_return_fallback_until_enough_latencies_are_recorded() {
+        var tracker = new LatencyTracker(100);
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES - 1; i++) {
+            tracker.record(10);
+        }
+
+        assertThat(tracker.percentile(95, 42)).isEqualTo(42);
+    }
+
+    @Test
+    void should_compute_percentile_of_recorded_latencies() {
+        var tracker = new LatencyTracker(100);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+
+        assertThat(tracker.percentile(50, 0)).isEqualTo(50);
+        assertThat(tracker.percentile(95, 0)).isEqualTo(95);
+        assertThat(tracker.percentile(99, 0)).isEqualTo(99);
+    }
+
+    @Test
+    void should_only_consider_most_recent_latencies() {
+        var tracker = new LatencyTracker(100);
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1000);
+        }
+        for (int i = 0; i < 100; i++) {
+            tracker.record(10);
+        }
+
+        assertThat(tracker.percentile(99, 0)).isEqualTo(10);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LingeringBufferTest {
+
+    private final TestScheduler scheduler = new TestScheduler();
+
+    @Test
+    void should_buffer_items_up_to_max_count() {
+        Flowable.range(1, 5)
+            .lift(new LingeringBuffer<Integer>(2, 1000, scheduler))
+            .test()
+            .assertValues(List.of(1, 2), List.of(3, 4), List.of(5))
+            .assertComplete();
+    }
+
+    @Test
+    void should_emit_partial_buffer_once_linger_time_has_elapsed() {
+        PublishProcessor<Integer> items = PublishProcessor.create();
+        var obs = items.lift(new LingeringBuffer<Integer>(3, 100, scheduler)).test();
+
+        items.onNext(1);
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        obs.assertNoValues();
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        obs.assertValues(List.of(1));
+
+        items.onNext(2);
+        items.onNext(3);
+        items.onNext(4);
+        obs.assertValues(List.of(1), List.of(2, 3, 4));
+    }
+
+    @Test
+    void should_only_request_items_of_buffers_requested_downstream() {
+        List<Long> requests = new ArrayList<>();
+        var obs = Flowable.range(1, 1000)
+            .doOnRequest(requests::add)
+            .lift(new LingeringBuffer<Integer>(10, 1000, scheduler))
+            .test(0);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        obs.assertNoValues().assertNoErrors();
+        assertThat(requests).isEmpty();
+
+        obs.request(2);
+        obs.assertValueCount(2).assertNoErrors().assertNotComplete();
+        assertThat(requests).containsExactly(10L, 10L);
+    }
+
+    @Test
+    void should_wait_for_downstream_requests_before_emitting_lingering_buffer() {
+        PublishProcessor<Integer> items = PublishProcessor.create();
+        var obs = items.lift(new LingeringBuffer<Integer>(3, 100, scheduler)).test(1);
+
+        items.onNext(1);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        items.onNext(2);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        obs.assertValues(List.of(1)).assertNoErrors();
+
+        obs.request(1);
+        obs.assertValues(List.of(1), List.of(2));
+    }
+
+    @Test
+    void should_emit_pending_buffer_on_complete() {
+        PublishProcessor<Integer> items = PublishProcessor.create();
+        var obs = items.lift(new LingeringBuffer<Integer>(3, 100, scheduler)).test();
+
+        items.onNext(1);
+        items.onComplete();
+
+        obs.assertValues(List.of(1)).assertComplete();
+    }
+}
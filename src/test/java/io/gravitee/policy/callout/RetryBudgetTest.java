@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTest {
+
+    @Test
+    void should_allow_retries_up_to_the_initial_balance() {
+        var budget = new RetryBudget(2);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    void should_allow_a_retry_once_enough_callouts_are_deposited() {
+        var budget = new RetryBudget(1);
+        budget.tryWithdraw();
+
+        for (int i = 0; i < 4; i++) {
+            budget.deposit(0.2);
+        }
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.deposit(0.2);
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+
+    @Test
+    void should_cap_the_balance() {
+        var budget = new RetryBudget(1);
+
+        budget.deposit(10);
+
+        assertThat(budget.available()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void should_share_in_flight_execution_between_subscribers() {
+        var executions = new AtomicInteger();
+        var response = SingleSubject.<String>create();
+
+        var first = singleFlight.execute("key", () -> response.doOnSubscribe(d -> executions.incrementAndGet())).test();
+        var second = singleFlight.execute("key", () -> response.doOnSubscribe(d -> executions.incrementAndGet())).test();
+        assertThat(singleFlight.inFlight()).isEqualTo(1);
+
+        response.onSuccess("value");
+
+        first.assertValue("value");
+        second.assertValue("value");
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void should_not_share_executions_with_different_keys() {
+        var executions = new AtomicInteger();
+
+        singleFlight.execute("key1", () -> Single.never().map(Object::toString).doOnSubscribe(d -> executions.incrementAndGet())).test();
+        singleFlight.execute("key2", () -> Single.never().map(Object::toString).doOnSubscribe(d -> executions.incrementAndGet())).test();
+
+        assertThat(executions).hasValue(2);
+        assertThat(singleFlight.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void should_execute_again_once_previous_execution_is_terminated() {
+        var executions = new AtomicInteger();
+
+        singleFlight
+            .execute("key", () -> Single.just("first").doOnSubscribe(d -> executions.incrementAndGet()))
+            .test()
+            .assertValue("first");
+        singleFlight
+            .execute("key", () -> Single.just("second").doOnSubscribe(d -> executions.incrementAndGet()))
+            .test()
+            .assertValue("second");
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void should_propagate_error_to_all_subscribers() {
+        var response = SingleSubject.<String>create();
+
+        var first = singleFlight.execute("key", () -> response).test();
+        var second = singleFlight.execute("key", () -> response).test();
+        response.onError(new IllegalStateException("boom"));
+
+        first.assertError(IllegalStateException.class);
+        second.assertError(IllegalStateException.class);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+}
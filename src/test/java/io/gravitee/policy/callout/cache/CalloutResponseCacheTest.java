@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.gateway.api.http.HttpHeaders;
+import io.gravitee.policy.callout.CalloutHttpPolicy;
+import io.gravitee.policy.callout.CalloutResponse;
+import io.gravitee.policy.callout.configuration.CacheMode;
+import io.gravitee.policy.callout.configuration.CacheOptions;
+import io.gravitee.policy.callout.configuration.HttpHeader;
+import io.vertx.core.buffer.Buffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CalloutResponseCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void should_return_cached_response_until_it_expires() {
+        var cache = new CalloutResponseCache(CacheOptions.builder().enabled(true).timeToLiveSeconds(10).build(), clock::get);
+        var key = key("http://localhost/a", "value");
+        var response = response("content");
+
+        cache.put(key, response);
+
+        assertThat(cache.get(key)).containsSame(response);
+        clock.set(9_999);
+        assertThat(cache.get(key)).containsSame(response);
+        clock.set(10_000);
+        assertThat(cache.get(key)).isEmpty();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.sizeBytes()).isZero();
+    }
+
+    @Test
+    void should_take_header_values_into_account() {
+        var cache = new CalloutResponseCache(CacheOptions.builder().enabled(true).build(), clock::get);
+
+        cache.put(key("http://localhost/a", "value1"), response("content"));
+
+        assertThat(cache.get(key("http://localhost/a", "value2"))).isEmpty();
+        assertThat(cache.get(key("http://localhost/a", "value1"))).isPresent();
+    }
+
+    @Test
+    void should_take_raw_body_into_account() {
+        var cache = new CalloutResponseCache(CacheOptions.builder().enabled(true).build(), clock::get);
+
+        cache.put(rawBodyKey("body1"), response("content"));
+
+        assertThat(cache.get(rawBodyKey("body2"))).isEmpty();
+        assertThat(cache.get(rawBodyKey("body1"))).isPresent();
+        assertThat(rawBodyKey("body1").body()).isNull();
+    }
+
+    @Test
+    void should_evict_least_recently_used_entry_when_max_entries_is_reached() {
+        var cache = new CalloutResponseCache(CacheOptions.builder().enabled(true).maxEntries(2).build(), clock::get);
+
+        cache.put(key("http://localhost/a", "v"), response("a"));
+        cache.put(key("http://localhost/b", "v"), response("b"));
+        cache.get(key("http://localhost/a", "v"));
+        cache.put(key("http://localhost/c", "v"), response("c"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(key("http://localhost/a", "v"))).isPresent();
+        assertThat(cache.get(key("http://localhost/b", "v"))).isEmpty();
+        assertThat(cache.get(key("http://localhost/c", "v"))).isPresent();
+    }
+
+    @Test
+    void should_evict_entries_when_max_size_is_reached() {
+        var key = key("http://localhost/a", "v");
+        var entrySize = key.estimatedSize() + 2L * "0123456789".length();
+        var cache = new CalloutResponseCache(CacheOptions.builder().enabled(true).maxSizeBytes(entrySize).build(), clock::get);
+
+        cache.put(key, response("0123456789"));
+        cache.put(key("http://localhost/b", "v"), response("0123456789"));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.sizeBytes()).isEqualTo(entrySize);
+        assertThat(cache.get(key)).isEmpty();
+    }
+
+    @Test
+    void should_not_cache_response_bigger_than_max_size() {
+        var cache = new CalloutResponseCache(CacheOptions.builder().enabled(true).maxSizeBytes(10).build(), clock::get);
+
+        cache.put(key("http://localhost/a", "v"), response("a content bigger than the cache"));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_follow_max_age_in_http_mode() {
+        var cache = httpCache(0);
+        var key = key("http://localhost/a", "v");
+
+        cache.put(key, response("content", "Cache-Control", "public, max-age=5"));
+
+        assertThat(cache.lookup(key).state()).isEqualTo(CalloutResponseCache.Lookup.State.FRESH);
+        clock.set(5_000);
+        assertThat(cache.lookup(key).state()).isEqualTo(CalloutResponseCache.Lookup.State.MISS);
+    }
+
+    @Test
+    void should_not_store_no_store_or_private_responses_in_http_mode() {
+        var cache = httpCache(0);
+
+        cache.put(key("http://localhost/a", "v"), response("content", "Cache-Control", "no-store, max-age=60"));
+        cache.put(key("http://localhost/b", "v"), response("content", "Cache-Control", "private, max-age=60"));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_serve_stale_response_while_revalidating_in_http_mode() {
+        var cache = httpCache(0);
+        var key = key("http://localhost/a", "v");
+
+        cache.put(key, response("content", "Cache-Control", "max-age=1, stale-while-revalidate=10"));
+
+        clock.set(1_000);
+        var lookup = cache.lookup(key);
+        assertThat(lookup.state()).isEqualTo(CalloutResponseCache.Lookup.State.STALE);
+        assertThat(lookup.entry().startRevalidation()).isTrue();
+        assertThat(lookup.entry().startRevalidation()).isFalse();
+        clock.set(11_000);
+        assertThat(cache.lookup(key).state()).isEqualTo(CalloutResponseCache.Lookup.State.MISS);
+    }
+
+    @Test
+    void should_use_configured_stale_while_revalidate_unless_must_revalidate() {
+        var cache = httpCache(10);
+
+        cache.put(key("http://localhost/a", "v"), response("content", "Cache-Control", "max-age=1"));
+        cache.put(key("http://localhost/b", "v"), response("content", "Cache-Control", "max-age=1, must-revalidate"));
+
+        clock.set(1_000);
+        assertThat(cache.lookup(key("http://localhost/a", "v")).state()).isEqualTo(CalloutResponseCache.Lookup.State.STALE);
+        assertThat(cache.lookup(key("http://localhost/b", "v")).state()).isEqualTo(CalloutResponseCache.Lookup.State.MISS);
+    }
+
+    @Test
+    void should_keep_expired_response_with_validators_and_refresh_it_on_not_modified() {
+        var cache = httpCache(0);
+        var key = key("http://localhost/a", "v");
+        var headers = HttpHeaders.create();
+        headers.add("Cache-Control", "no-cache");
+        headers.add("ETag", "\"v1\"");
+        cache.put(key, new CalloutResponse(200, headers, "content"));
+
+        var lookup = cache.lookup(key);
+        assertThat(lookup.state()).isEqualTo(CalloutResponseCache.Lookup.State.EXPIRED);
+        assertThat(lookup.entry().etag()).isEqualTo("\"v1\"");
+
+        var notModifiedHeaders = HttpHeaders.create();
+        notModifiedHeaders.add("Cache-Control", "max-age=5");
+        notModifiedHeaders.add("ETag", "\"v1\"");
+        var revalidated = cache.revalidated(key, lookup.entry(), notModifiedHeaders);
+
+        assertThat(revalidated.getStatus()).isEqualTo(200);
+        assertThat(revalidated.getContent()).isEqualTo("content");
+        assertThat(cache.lookup(key).state()).isEqualTo(CalloutResponseCache.Lookup.State.FRESH);
+    }
+
+    @Test
+    void should_not_update_framing_headers_of_stored_response_on_not_modified() {
+        var cache = httpCache(0);
+        var key = key("http://localhost/a", "v");
+        var headers = HttpHeaders.create();
+        headers.add("Cache-Control", "no-cache");
+        headers.add("ETag", "\"v1\"");
+        headers.add("Content-Length", "7");
+        cache.put(key, new CalloutResponse(200, headers, "content"));
+
+        var notModifiedHeaders = HttpHeaders.create();
+        notModifiedHeaders.add("Cache-Control", "max-age=5");
+        notModifiedHeaders.add("Content-Length", "0");
+        notModifiedHeaders.add("Transfer-Encoding", "chunked");
+        notModifiedHeaders.add("Content-Encoding", "gzip");
+        var revalidated = cache.revalidated(key, cache.lookup(key).entry(), notModifiedHeaders);
+
+        assertThat(revalidated.getHeaders().get("Cache-Control")).isEqualTo("max-age=5");
+        assertThat(revalidated.getHeaders().get("Content-Length")).isEqualTo("7");
+        assertThat(revalidated.getHeaders().contains("Transfer-Encoding")).isFalse();
+        assertThat(revalidated.getHeaders().contains("Content-Encoding")).isFalse();
+    }
+
+    private CalloutResponseCache httpCache(long staleWhileRevalidateSeconds) {
+        return new CalloutResponseCache(
+            CacheOptions.builder().enabled(true).mode(CacheMode.HTTP).staleWhileRevalidateSeconds(staleWhileRevalidateSeconds).build(),
+            clock::get
+        );
+    }
+
+    private static CalloutResponse response(String content, String headerName, String headerValue) {
+        var headers = HttpHeaders.create();
+        headers.add(headerName, headerValue);
+        return new CalloutResponse(200, headers, content);
+    }
+
+    private static CalloutCacheKey key(String url, String headerValue) {
+        return CalloutCacheKey.of(
+            HttpMethod.GET,
+            new CalloutHttpPolicy.Req(url, Optional.empty(), List.of(new HttpHeader("X-Header", headerValue)))
+        );
+    }
+
+    private static CalloutCacheKey rawBodyKey(String body) {
+        return CalloutCacheKey.of(
+            HttpMethod.POST,
+            new CalloutHttpPolicy.Req("http://localhost/a", Optional.empty(), List.of(), Buffer.buffer(body))
+        );
+    }
+
+    private static CalloutResponse response(String content) {
+        return new CalloutResponse(200, HttpHeaders.create(), content);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.circuitbreaker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.gravitee.policy.callout.configuration.CircuitBreakerOptions;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(
+        CircuitBreakerOptions.builder()
+            .slidingWindowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(50)
+            .slowCallDurationMs(1000)
+            .slowCallRateThreshold(75)
+            .openDurationMs(10_000)
+            .halfOpenProbes(2)
+            .build(),
+        clock::get
+    );
+
+    @Test
+    void should_open_when_failure_rate_reaches_threshold() {
+        call(10, false);
+        call(10, false);
+        call(10, true);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(10, true);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void should_open_when_slow_call_rate_reaches_threshold() {
+        call(10, false);
+        call(1000, false);
+        call(2000, false);
+        call(3000, false);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void should_only_consider_the_sliding_window() {
+        call(10, true);
+        for (int i = 0; i < 5; i++) {
+            call(10, false);
+        }
+        call(10, true);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        call(10, true);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void should_close_once_half_open_probes_succeeded() {
+        open();
+        clock.set(10_000);
+
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        circuitBreaker.onResult(10, false);
+        circuitBreaker.onResult(10, false);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void should_open_again_when_a_probe_fails() {
+        open();
+        clock.set(10_000);
+
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        circuitBreaker.onResult(10, true);
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void should_release_probe_when_cancelled() {
+        open();
+        clock.set(10_000);
+        circuitBreaker.tryAcquire();
+        circuitBreaker.tryAcquire();
+
+        circuitBreaker.onCancel(10);
+
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(10, true);
+        }
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(long durationMs, boolean failure) {
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        circuitBreaker.onResult(durationMs, failure);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.policy.callout.spool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CalloutSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_replay_records_in_order() {
+        var spool = new CalloutSpool(directory, 4096, 1024);
+        spool.append(bytes("first"));
+        spool.append(bytes("second"));
+
+        var first = spool.poll();
+        spool.ack(first);
+        var second = spool.poll();
+        spool.ack(second);
+
+        assertThat(first.payload()).isEqualTo(bytes("first"));
+        assertThat(second.payload()).isEqualTo(bytes("second"));
+        assertThat(spool.poll()).isNull();
+        assertThat(spool.pending()).isZero();
+    }
+
+    @Test
+    void should_replay_requeued_record_again() {
+        var spool = new CalloutSpool(directory, 4096, 1024);
+        spool.append(bytes("first"));
+        spool.append(bytes("second"));
+
+        spool.requeue(spool.poll());
+
+        assertThat(spool.poll().payload()).isEqualTo(bytes("first"));
+        assertThat(spool.pending()).isEqualTo(2);
+    }
+
+    @Test
+    void should_recover_pending_records_when_reopened() {
+        var spool = new CalloutSpool(directory, 4096, 1024);
+        spool.append(bytes("first"));
+        spool.append(bytes("second"));
+        spool.ack(spool.poll());
+
+        var reopened = new CalloutSpool(directory, 4096, 1024);
+
+        assertThat(reopened.pending()).isEqualTo(1);
+        assertThat(reopened.poll().payload()).isEqualTo(bytes("second"));
+    }
+
+    @Test
+    void should_stop_recovery_at_first_corrupted_record() throws IOException {
+        var spool = new CalloutSpool(directory, 4096, 1024);
+        spool.append(bytes("first"));
+        spool.append(bytes("second"));
+        spool.append(bytes("third"));
+        try (var file = new RandomAccessFile(segmentFiles()[0].toFile(), "rw")) {
+            // Corrupt the payload of the second record.
+            file.seek(CalloutSpool.HEADER_BYTES + "first".length() + CalloutSpool.HEADER_BYTES);
+            file.write('x');
+        }
+
+        var reopened = new CalloutSpool(directory, 4096, 1024);
+        reopened.append(bytes("fourth"));
+
+        assertThat(reopened.pending()).isEqualTo(2);
+        assertThat(reopened.poll().payload()).isEqualTo(bytes("first"));
+        assertThat(reopened.poll().payload()).isEqualTo(bytes("fourth"));
+    }
+
+    @Test
+    void should_reject_records_once_max_size_is_reached() {
+        var spool = new CalloutSpool(directory, 2048, 1024);
+        var payload = new byte[500];
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(spool.append(payload)).isTrue();
+        }
+
+        assertThat(spool.append(payload)).isFalse();
+        assertThat(spool.dropped()).isEqualTo(1);
+        assertThat(spool.segments()).isEqualTo(2);
+    }
+
+    @Test
+    void should_delete_segments_once_replayed() throws IOException {
+        var spool = new CalloutSpool(directory, 4096, 1024);
+        var payload = new byte[600];
+        spool.append(payload);
+        spool.append(payload);
+        assertThat(segmentFiles()).hasSize(2);
+
+        spool.ack(spool.poll());
+
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(spool.poll()).isNotNull();
+    }
+
+    @Test
+    void should_share_spool_by_directory_until_released() {
+        var first = CalloutSpool.open(directory, 4096, 1024);
+        var second = CalloutSpool.open(directory.resolve("."), 8192, 1024);
+        assertThat(second).isSameAs(first);
+
+        first.release();
+        assertThat(second.append(bytes("first"))).isTrue();
+
+        second.release();
+        assertThat(second.append(bytes("second"))).isFalse();
+        assertThat(second.poll()).isNull();
+
+        var reopened = CalloutSpool.open(directory, 4096, 1024);
+        assertThat(reopened).isNotSameAs(first);
+        assertThat(reopened.pending()).isEqualTo(1);
+        reopened.release();
+    }
+
+    @Test
+    void should_let_a_single_user_replay_records() {
+        var spool = new CalloutSpool(directory, 4096, 1024);
+        var first = new Object();
+        var second = new Object();
+
+        assertThat(spool.claimReplay(first)).isTrue();
+        assertThat(spool.claimReplay(second)).isFalse();
+        assertThat(spool.claimReplay(first)).isTrue();
+
+        spool.releaseReplay(first);
+        assertThat(spool.claimReplay(second)).isTrue();
+    }
+
+    @Test
+    void should_restrict_spool_files_to_their_owner() throws IOException {
+        assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        var spoolDirectory = directory.resolve("spool");
+
+        new CalloutSpool(spoolDirectory, 4096, 1024).append(bytes("first"));
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(spoolDirectory))).isEqualTo("rwx------");
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertThat(files).isNotEmpty().allSatisfy(file ->
+                assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file))).isEqualTo("rw-------")
+            );
+        }
+    }
+
+    @Test
+    void should_refuse_existing_directory_accessible_to_others() throws IOException {
+        assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        var spoolDirectory = Files.createDirectory(directory.resolve("shared"));
+        Files.setPosixFilePermissions(spoolDirectory, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        assertThatThrownBy(() -> new CalloutSpool(spoolDirectory, 4096, 1024)).isInstanceOf(UncheckedIOException.class);
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(spoolDirectory))).isEqualTo("rwxr-xr-x");
+    }
+
+    private Path[] segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toArray(Path[]::new);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
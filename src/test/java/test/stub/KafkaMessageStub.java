@@ -30,6 +30,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class KafkaMessageStub implements KafkaMessage {
 
     private final Map<String, Buffer> recordHeaders = new ConcurrentHashMap<>();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
     private Buffer key;
     private Buffer content;
 
@@ -149,8 +150,9 @@ public class KafkaMessageStub implements KafkaMessage {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T attribute(String name) {
-        return null;
+        return (T) attributes.get(name);
     }
 
     @Override
@@ -160,22 +162,25 @@ public class KafkaMessageStub implements KafkaMessage {
 
     @Override
     public Message attribute(String name, Object value) {
+        attributes.put(name, value);
         return this;
     }
 
     @Override
     public Message removeAttribute(String name) {
+        attributes.remove(name);
         return this;
     }
 
     @Override
     public Set<String> attributeNames() {
-        return Set.of();
+        return attributes.keySet();
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> Map<String, T> attributes() {
-        return Map.of();
+        return (Map<String, T>) attributes;
     }
 
     @Override